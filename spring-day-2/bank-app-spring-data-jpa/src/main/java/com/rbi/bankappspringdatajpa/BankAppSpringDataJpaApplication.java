@@ -1,13 +1,26 @@
 package com.rbi.bankappspringdatajpa;
 
+import com.rbi.bankappspringdatajpa.service.DailySummaryRebuilder;
+import org.springframework.boot.DefaultApplicationArguments;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 @SpringBootApplication
 public class BankAppSpringDataJpaApplication {
 
 	public static void main(String[] args) {
+		if (new DefaultApplicationArguments(args).containsOption(DailySummaryRebuilder.REBUILD_OPTION)) {
+			System.exit(runCommand(args));
+		}
 		SpringApplication.run(BankAppSpringDataJpaApplication.class, args);
 	}
 
+	// one-off commands such as the daily summary rebuild: no web server, and the exit code once the runners are done
+	static int runCommand(String... args) {
+		SpringApplication application = new SpringApplication(BankAppSpringDataJpaApplication.class);
+		application.setWebApplicationType(WebApplicationType.NONE);
+		return SpringApplication.exit(application.run(args));
+	}
+
 }
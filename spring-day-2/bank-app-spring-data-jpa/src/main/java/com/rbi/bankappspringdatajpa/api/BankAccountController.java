@@ -1,14 +1,44 @@
 package com.rbi.bankappspringdatajpa.api;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rbi.bankappspringdatajpa.bulk.AccountCsv;
+import com.rbi.bankappspringdatajpa.bulk.AccountImportReader;
+import com.rbi.bankappspringdatajpa.bulk.AccountImporter;
+import com.rbi.bankappspringdatajpa.dto.AccountImportResultDto;
+import com.rbi.bankappspringdatajpa.dto.AccountPageDto;
+import com.rbi.bankappspringdatajpa.dto.AccountResponseDto;
+import com.rbi.bankappspringdatajpa.dto.AccountResponseSerializer;
+import com.rbi.bankappspringdatajpa.dto.AccountSummaryDto;
 import com.rbi.bankappspringdatajpa.dto.AccountTransactionRequestDto;
 import com.rbi.bankappspringdatajpa.dto.AccountTransactionResponseDto;
+import com.rbi.bankappspringdatajpa.dto.BatchTransactionResponseDto;
+import com.rbi.bankappspringdatajpa.dto.TransactionPageDto;
+import com.rbi.bankappspringdatajpa.dto.TransferRequestDto;
+import com.rbi.bankappspringdatajpa.dto.TransferResponseDto;
+import com.rbi.bankappspringdatajpa.exception.InvalidRequestException;
 import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.money.Money;
 import com.rbi.bankappspringdatajpa.service.BankAccountService;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -16,10 +46,18 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:4200")
 public class BankAccountController {
 
+    // a retried mutation with the same key returns the first response instead of being applied again
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private BankAccountService bankService;
+    private ObjectMapper objectMapper;
+    private AccountImporter accountImporter;
 
-    public BankAccountController(BankAccountService bankService) {
+    public BankAccountController(BankAccountService bankService, ObjectMapper objectMapper,
+                                 AccountImporter accountImporter) {
         this.bankService = bankService;
+        this.objectMapper = objectMapper;
+        this.accountImporter = accountImporter;
     }
 
 //    @PostMapping
@@ -29,23 +67,94 @@ public class BankAccountController {
 //    }
 
     @PostMapping
-    public ResponseEntity<BankAccount> createAccount(@RequestBody BankAccount account){
+    public ResponseEntity<AccountResponseDto> createAccount(@RequestBody BankAccount account){
         BankAccount savedAccount = bankService.createAccount(account);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedAccount);
+        return ResponseEntity.status(HttpStatus.CREATED).body(AccountResponseDto.of(savedAccount));
     }
 
 
 
     @GetMapping
-    public List<BankAccount> getAllAccounts(){
-        return bankService.getAllAccount();
+    public AccountPageDto getAllAccounts(@RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "100") int size){
+        return bankService.getAccounts(cursor, size);
+    }
+
+    // One JSON document per line, written while the rows are read so memory does not depend on the table size. All
+    // lines go through the buffer of one generator, the serializer writes into it directly.
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllAccounts(){
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                bankService.streamAllAccounts(account -> {
+                    try {
+                        AccountResponseSerializer.write(account, generator);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // the same accounts as CSV, in the layout accepted by POST /import
+    @GetMapping(value = "/stream", produces = AccountCsv.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> streamAllAccountsAsCsv(){
+        StreamingResponseBody body = outputStream -> {
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+                writer.write(AccountCsv.HEADER);
+                writer.newLine();
+                bankService.streamAllAccounts(account -> {
+                    try {
+                        writer.write(AccountCsv.format(account));
+                        writer.newLine();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(AccountCsv.MEDIA_TYPE)).body(body);
+    }
+
+    // Bulk onboarding. The upload is parsed and inserted in batches while it is read, rows that cannot be imported are
+    // listed in the summary and do not stop the import.
+    @PostMapping(value = "/import", consumes = AccountCsv.MEDIA_TYPE)
+    public ResponseEntity<ProblemDetail> importAccountsFromCsv(InputStream body){
+        return importSummary(accountImporter.importAccounts(AccountImportReader.csv(reader(body))));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ProblemDetail> importAccountsFromNdjson(InputStream body){
+        return importSummary(accountImporter.importAccounts(
+                AccountImportReader.ndjson(reader(body), objectMapper.readerFor(BankAccount.class))));
     }
 
     @GetMapping("/{accountNumber}")
-    public BankAccount findAccount(@PathVariable String accountNumber){
+    public AccountResponseDto findAccount(@PathVariable String accountNumber){
         return bankService.getAccountDetails(accountNumber);
     }
 
+    @GetMapping("/{accountNumber}/transactions")
+    public TransactionPageDto getTransactions(@PathVariable String accountNumber,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "50") int size){
+        return bankService.getTransactions(accountNumber, from, to, cursor, size);
+    }
+
+    // credits and debits per day, read from daily_account_summary instead of the transactions
+    @GetMapping("/{accountNumber}/summary")
+    public AccountSummaryDto getDailySummary(@PathVariable String accountNumber,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        return bankService.getDailySummary(accountNumber, from, to);
+    }
+
     @DeleteMapping("/{accountNumber}")
     @ResponseStatus(code = HttpStatus.NO_CONTENT)
     public void deleteAccountById(@PathVariable String accountNumber){
@@ -54,15 +163,56 @@ public class BankAccountController {
 
     @PatchMapping("/deposit")
     @ResponseStatus(code=HttpStatus.ACCEPTED)
-    public AccountTransactionResponseDto depositAmount(@RequestBody AccountTransactionRequestDto accountTransactionRequest){
-        return bankService.deposit(accountTransactionRequest);
+    public AccountTransactionResponseDto depositAmount(@RequestBody AccountTransactionRequestDto accountTransactionRequest,
+                                                       @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey){
+        return bankService.deposit(accountTransactionRequest, idempotencyKey);
+    }
+
+    @PostMapping("/transfer")
+    @ResponseStatus(code=HttpStatus.ACCEPTED)
+    public TransferResponseDto transfer(@RequestBody TransferRequestDto transferRequest,
+                                        @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey){
+        return bankService.transfer(transferRequest, idempotencyKey);
+    }
+
+    // end of day settlement files, positive amounts are credited and negative amounts debited
+    @PostMapping("/transactions/batch")
+    @ResponseStatus(code=HttpStatus.ACCEPTED)
+    public BatchTransactionResponseDto applyTransactionBatch(@RequestBody List<AccountTransactionRequestDto> transactionRequests){
+        return bankService.applyTransactionBatch(transactionRequests);
     }
 
 
     @PatchMapping("/{accountNumber}/withdraw/{amount}")
     @ResponseStatus(code=HttpStatus.ACCEPTED)
-    public BankAccount withdrawAmount(@PathVariable String accountNumber, @PathVariable double amount){
-        return bankService.withdraw(accountNumber,amount);
+    public AccountResponseDto withdrawAmount(@PathVariable String accountNumber, @PathVariable BigDecimal amount,
+                                             @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey){
+        return AccountResponseDto.of(bankService.withdraw(accountNumber,toMinorUnits(amount),idempotencyKey));
+    }
+
+    private static BufferedReader reader(InputStream body){
+        return new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    // 200 when every row was imported, 422 when some were rejected, the other rows are imported either way
+    private static ResponseEntity<ProblemDetail> importSummary(AccountImportResultDto result){
+        HttpStatus status = result.rejected() == 0 ? HttpStatus.OK : HttpStatus.UNPROCESSABLE_ENTITY;
+        ProblemDetail summary = ProblemDetail.forStatus(status);
+        summary.setTitle("Account import");
+        summary.setDetail("Imported " + result.imported() + " of " + result.rows() + " accounts");
+        summary.setProperty("rows", result.rows());
+        summary.setProperty("imported", result.imported());
+        summary.setProperty("rejected", result.rejected());
+        summary.setProperty("errors", result.errors());
+        return ResponseEntity.status(status).body(summary);
+    }
+
+    private static long toMinorUnits(BigDecimal amount){
+        try {
+            return Money.toMinorUnits(amount);
+        } catch (ArithmeticException e) {
+            throw new InvalidRequestException("Amount [" + amount + "] has more than " + Money.SCALE + " decimals");
+        }
     }
 
 
@@ -0,0 +1,89 @@
+package com.rbi.bankappspringdatajpa.bulk;
+
+import com.rbi.bankappspringdatajpa.dto.AccountResponseDto;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.money.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The CSV layout of accounts for import and export: a header line, then one account per line with the balance in
+ * major units. Fields holding a comma or a double quote are quoted, line breaks inside fields are not supported.
+ */
+public final class AccountCsv {
+
+    public static final String MEDIA_TYPE = "text/csv";
+    public static final String HEADER = "accountNumber,accountHolderName,balance,accountType";
+
+    private static final int FIELDS = 4;
+
+    private AccountCsv() {
+    }
+
+    public static String format(AccountResponseDto account) {
+        StringBuilder line = new StringBuilder(64);
+        appendField(line, account.accountNumber()).append(',');
+        appendField(line, account.accountHolderName()).append(',');
+        line.append(Money.format(account.balance())).append(',');
+        return appendField(line, account.accountType()).toString();
+    }
+
+    // throws IllegalArgumentException with a message meant for the import summary
+    public static BankAccount parse(String line) {
+        List<String> fields = split(line);
+        if (fields.size() != FIELDS) {
+            throw new IllegalArgumentException("Expected " + FIELDS + " fields but found " + fields.size());
+        }
+        long balance;
+        try {
+            balance = Money.toMinorUnits(fields.get(2));
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException("Balance [" + fields.get(2) + "] is not an amount with at most "
+                    + Money.SCALE + " decimals");
+        }
+        return new BankAccount(fields.get(0), fields.get(1), balance, fields.get(3), null);
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>(FIELDS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static StringBuilder appendField(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return line.append(value);
+        }
+        return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.rbi.bankappspringdatajpa.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.rbi.bankappspringdatajpa.exception.InvalidRequestException;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Reads an import file one line at a time while it is being uploaded. A line that cannot be parsed becomes a rejected
+ * row instead of failing the import. Blank lines are skipped.
+ */
+public final class AccountImportReader implements Iterator<AccountImportRow> {
+
+    private final BufferedReader reader;
+    private final Function<String, BankAccount> parser;
+    private long lineNumber;
+    private AccountImportRow next;
+
+    private AccountImportReader(BufferedReader reader, Function<String, BankAccount> parser) {
+        this.reader = reader;
+        this.parser = parser;
+    }
+
+    // the first line must be AccountCsv.HEADER
+    public static AccountImportReader csv(BufferedReader reader) {
+        AccountImportReader importReader = new AccountImportReader(reader, AccountCsv::parse);
+        String header = importReader.readLine();
+        if (header == null || !header.strip().equals(AccountCsv.HEADER)) {
+            throw new InvalidRequestException("The first line of a CSV import must be [" + AccountCsv.HEADER + "]");
+        }
+        return importReader;
+    }
+
+    // one BankAccount JSON document per line
+    public static AccountImportReader ndjson(BufferedReader reader, ObjectReader accountReader) {
+        return new AccountImportReader(reader, line -> {
+            try {
+                return accountReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException(e.getOriginalMessage());
+            }
+        });
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            String line = readLine();
+            if (line == null) {
+                return false;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                next = AccountImportRow.parsed(lineNumber, parser.apply(line));
+            } catch (IllegalArgumentException e) {
+                next = AccountImportRow.rejected(lineNumber, e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public AccountImportRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        AccountImportRow row = next;
+        next = null;
+        return row;
+    }
+
+    private String readLine() {
+        try {
+            String line = reader.readLine();
+            if (line != null) {
+                lineNumber++;
+            }
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.rbi.bankappspringdatajpa.bulk;
+
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+
+// one line of an import file, either the parsed account or the reason it could not be parsed
+public record AccountImportRow(long line, BankAccount account, String error) {
+
+    public static AccountImportRow parsed(long line, BankAccount account) {
+        return new AccountImportRow(line, account, null);
+    }
+
+    public static AccountImportRow rejected(long line, String error) {
+        return new AccountImportRow(line, null, error);
+    }
+
+}
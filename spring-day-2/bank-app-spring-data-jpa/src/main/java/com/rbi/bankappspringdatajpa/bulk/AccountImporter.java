@@ -0,0 +1,158 @@
+package com.rbi.bankappspringdatajpa.bulk;
+
+import com.rbi.bankappspringdatajpa.dto.AccountImportErrorDto;
+import com.rbi.bankappspringdatajpa.dto.AccountImportResultDto;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Inserts accounts in batches of {@code account.import.batch_size}: one query finds the account numbers of a batch
+ * that already exist, the new accounts go out as JDBC batches and each batch commits on its own. Memory depends on
+ * the batch size, not on the file. Rows already committed stay when a later batch fails.
+ *
+ * <p>{@code bank.account.import.rows}, tagged imported or rejected, counts rows while an import is running.
+ */
+@Component
+public class AccountImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountImporter.class);
+    private static final int MAX_ACCOUNT_NUMBER_LENGTH = 12;
+
+    private final BankAccountRepo accountRepo;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxReportedErrors;
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+
+    public AccountImporter(BankAccountRepo accountRepo, EntityManager entityManager,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                           @Value("${account.import.batch_size:500}") int batchSize,
+                           @Value("${account.import.max_reported_errors:100}") int maxReportedErrors) {
+        this.accountRepo = accountRepo;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.importedRows = Counter.builder("bank.account.import.rows").tag("outcome", "imported")
+                .description("Accounts imported").register(meterRegistry);
+        this.rejectedRows = Counter.builder("bank.account.import.rows").tag("outcome", "rejected")
+                .description("Import rows rejected").register(meterRegistry);
+    }
+
+    public AccountImportResultDto importAccounts(Iterator<AccountImportRow> rows) {
+        Progress progress = new Progress();
+        List<AccountImportRow> batch = new ArrayList<>(batchSize);
+        while (rows.hasNext()) {
+            AccountImportRow row = rows.next();
+            progress.rows++;
+            String error = row.error() != null ? row.error() : validate(row.account());
+            if (error != null) {
+                progress.reject(row, error);
+                continue;
+            }
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                insertBatch(batch, progress);
+            }
+        }
+        insertBatch(batch, progress);
+        log.info("Imported {} of {} accounts, {} rows rejected", progress.imported, progress.rows, progress.rejected);
+        return new AccountImportResultDto(progress.rows, progress.imported, progress.rejected, progress.errors);
+    }
+
+    private void insertBatch(List<AccountImportRow> batch, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<AccountImportRow> duplicates;
+        try {
+            duplicates = transactionTemplate.execute(status -> insertNew(batch));
+        } catch (DataIntegrityViolationException e) {
+            // an account of this batch was created meanwhile and the batch rolled back, checking again finds it
+            duplicates = transactionTemplate.execute(status -> insertNew(batch));
+        }
+        for (AccountImportRow duplicate : duplicates) {
+            progress.reject(duplicate, "Account already exists");
+        }
+        int imported = batch.size() - duplicates.size();
+        progress.imported += imported;
+        importedRows.increment(imported);
+        log.debug("Account import: {} rows read, {} imported", progress.rows, progress.imported);
+        batch.clear();
+    }
+
+    // returns the rows that were not inserted because the account number is taken
+    private List<AccountImportRow> insertNew(List<AccountImportRow> batch) {
+        Set<String> existing = accountRepo.findExistingAccountNumbers(
+                batch.stream().map(row -> row.account().getAccountNumber()).toList());
+        Session session = entityManager.unwrap(Session.class);
+        session.setJdbcBatchSize(batchSize);
+        // imported accounts are not read yet, keep them out of the second-level cache
+        session.setCacheMode(CacheMode.IGNORE);
+        Set<String> inserted = new HashSet<>();
+        List<AccountImportRow> duplicates = new ArrayList<>();
+        for (AccountImportRow row : batch) {
+            String accountNumber = row.account().getAccountNumber();
+            if (existing.contains(accountNumber) || !inserted.add(accountNumber)) {
+                duplicates.add(row);
+                continue;
+            }
+            // persist inserts without the select that save() issues for an assigned id
+            entityManager.persist(row.account());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return duplicates;
+    }
+
+    private static String validate(BankAccount account) {
+        String accountNumber = account.getAccountNumber();
+        if (accountNumber == null || accountNumber.isBlank() || accountNumber.length() > MAX_ACCOUNT_NUMBER_LENGTH) {
+            return "Account number must be 1 to " + MAX_ACCOUNT_NUMBER_LENGTH + " characters";
+        }
+        if (account.getAccountHolderName() == null || account.getAccountHolderName().isBlank()) {
+            return "Account holder name is missing";
+        }
+        if (account.getBalance() < 0) {
+            return "Balance may not be negative";
+        }
+        return null;
+    }
+
+    private class Progress {
+        long rows;
+        long imported;
+        long rejected;
+        final List<AccountImportErrorDto> errors = new ArrayList<>();
+
+        void reject(AccountImportRow row, String error) {
+            rejected++;
+            rejectedRows.increment();
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new AccountImportErrorDto(row.line(),
+                        row.account() == null ? null : row.account().getAccountNumber(), error));
+            }
+        }
+    }
+
+}
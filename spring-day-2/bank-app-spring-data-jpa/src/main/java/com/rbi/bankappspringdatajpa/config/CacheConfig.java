@@ -0,0 +1,13 @@
+package com.rbi.bankappspringdatajpa.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// cache names, size and expiry are set under spring.cache, spring.cache.type=none switches caching off
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String ACCOUNTS_CACHE = "accounts";
+
+}
@@ -0,0 +1,27 @@
+package com.rbi.bankappspringdatajpa.config;
+
+import com.rbi.bankappspringdatajpa.outbox.FileOutboxPublisher;
+import com.rbi.bankappspringdatajpa.outbox.InProcessOutboxPublisher;
+import com.rbi.bankappspringdatajpa.outbox.OutboxPublisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    public OutboxPublisher outboxPublisher(@Value("${account.outbox.publisher:in-process}") String publisher,
+                                           @Value("${account.outbox.file:outbox-events.ndjson}") Path file,
+                                           ApplicationEventPublisher eventPublisher) {
+        return switch (publisher) {
+            case "in-process" -> new InProcessOutboxPublisher(eventPublisher);
+            case "file" -> new FileOutboxPublisher(file);
+            default -> throw new IllegalArgumentException("Unknown account.outbox.publisher [" + publisher + "]");
+        };
+    }
+
+}
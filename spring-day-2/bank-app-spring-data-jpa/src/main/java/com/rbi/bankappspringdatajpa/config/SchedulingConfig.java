@@ -0,0 +1,10 @@
+package com.rbi.bankappspringdatajpa.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// background housekeeping, runs on virtual threads when spring.threads.virtual.enabled is set
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,40 @@
+package com.rbi.bankappspringdatajpa.config;
+
+import com.rbi.bankappspringdatajpa.monitoring.SlowQueryListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+
+// replaces hibernate show_sql in production: every statement is timed, only slow ones are logged
+@Configuration
+@ConditionalOnProperty(name = "account.slow_query.enabled", havingValue = "true")
+public class SlowQueryLogConfig {
+
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                     @Value("${account.slow_query.threshold_ms:200}") long thresholdMillis) {
+        SlowQueryListener listener = new SlowQueryListener(meterRegistry::getObject, thresholdMillis);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // with replica routing the pools are proxied, not the routing data source in front of them
+                if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(listener)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.rbi.bankappspringdatajpa.config;
+
+import com.rbi.bankappspringdatajpa.service.PooledSequenceTransactionIdGenerator;
+import com.rbi.bankappspringdatajpa.service.SnowflakeTransactionIdGenerator;
+import com.rbi.bankappspringdatajpa.service.TransactionIdGenerator;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+@Configuration
+public class TransactionIdGeneratorConfig {
+
+    @Bean
+    public TransactionIdGenerator transactionIdGenerator(@Value("${account.transaction_id.generator:snowflake}") String generator,
+                                                         @Value("${account.transaction_id.node_id:0}") long nodeId,
+                                                         @Value("${account.transaction_id.allocation_size:50}") int allocationSize,
+                                                         @Qualifier("transactionIdDataSource") ObjectProvider<HikariDataSource> transactionIdDataSource) {
+        return switch (generator) {
+            case "snowflake" -> new SnowflakeTransactionIdGenerator(nodeId);
+            case "sequence" -> new PooledSequenceTransactionIdGenerator(transactionIdDataSource.getObject(), allocationSize);
+            default -> throw new IllegalArgumentException("Unknown account.transaction_id.generator [" + generator + "]");
+        };
+    }
+
+    // One connection to spring.datasource, outside the application's pool, only opened for the sequence generator.
+    // Its refills must not wait for a pooled connection while their callers hold the others.
+    @Bean(defaultCandidate = false)
+    @Lazy
+    public HikariDataSource transactionIdDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("transaction-id");
+        dataSource.setMaximumPoolSize(1);
+        return dataSource;
+    }
+
+}
@@ -0,0 +1,5 @@
+package com.rbi.bankappspringdatajpa.dto;
+
+// line is counted from 1 and includes the CSV header
+public record AccountImportErrorDto(long line, String accountNumber, String error) {
+}
@@ -0,0 +1,7 @@
+package com.rbi.bankappspringdatajpa.dto;
+
+import java.util.List;
+
+// errors holds the first rejected rows only, rejected counts all of them
+public record AccountImportResultDto(long rows, long imported, long rejected, List<AccountImportErrorDto> errors) {
+}
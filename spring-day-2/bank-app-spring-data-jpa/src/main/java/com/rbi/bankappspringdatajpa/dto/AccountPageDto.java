@@ -0,0 +1,7 @@
+package com.rbi.bankappspringdatajpa.dto;
+
+import java.util.List;
+
+// nextCursor is the last account number of this page, or null when there are no more pages
+public record AccountPageDto(List<AccountResponseDto> accounts, String nextCursor) {
+}
@@ -0,0 +1,19 @@
+package com.rbi.bankappspringdatajpa.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+
+// what the API returns for an account, written by AccountResponseSerializer, balance in minor units
+@JsonSerialize(using = AccountResponseSerializer.class)
+public record AccountResponseDto(String accountNumber, String accountHolderName, long balance, String accountType) {
+
+    public static AccountResponseDto of(BankAccount account) {
+        return new AccountResponseDto(account.getAccountNumber(), account.getAccountHolderName(), account.getBalance(),
+                account.getAccountType());
+    }
+
+    public AccountResponseDto withBalance(long balance) {
+        return new AccountResponseDto(accountNumber, accountHolderName, balance, accountType);
+    }
+
+}
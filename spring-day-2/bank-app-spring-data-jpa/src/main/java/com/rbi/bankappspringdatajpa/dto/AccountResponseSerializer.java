@@ -0,0 +1,46 @@
+package com.rbi.bankappspringdatajpa.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.rbi.bankappspringdatajpa.money.Money;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link AccountResponseDto} field by field, in the layout the API has always used for accounts. Jackson
+ * resolves this serializer once per mapper instead of introspecting the record, and the field names are encoded once
+ * here instead of on every write.
+ */
+public class AccountResponseSerializer extends StdSerializer<AccountResponseDto> {
+
+    private static final SerializedString ACCOUNT_NUMBER = new SerializedString("accountNumber");
+    private static final SerializedString ACCOUNT_HOLDER_NAME = new SerializedString("accountHolderName");
+    private static final SerializedString BALANCE = new SerializedString("balance");
+    private static final SerializedString ACCOUNT_TYPE = new SerializedString("accountType");
+
+    public AccountResponseSerializer() {
+        super(AccountResponseDto.class);
+    }
+
+    @Override
+    public void serialize(AccountResponseDto account, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        write(account, generator);
+    }
+
+    // without a SerializerProvider, for callers that write many accounts to one generator
+    public static void write(AccountResponseDto account, JsonGenerator generator) throws IOException {
+        generator.writeStartObject(account);
+        generator.writeFieldName(ACCOUNT_NUMBER);
+        generator.writeString(account.accountNumber());
+        generator.writeFieldName(ACCOUNT_HOLDER_NAME);
+        generator.writeString(account.accountHolderName());
+        generator.writeFieldName(BALANCE);
+        generator.writeNumber(Money.format(account.balance()));
+        generator.writeFieldName(ACCOUNT_TYPE);
+        generator.writeString(account.accountType());
+        generator.writeEndObject();
+    }
+
+}
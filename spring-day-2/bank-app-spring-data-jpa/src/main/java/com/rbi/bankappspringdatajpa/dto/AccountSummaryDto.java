@@ -0,0 +1,11 @@
+package com.rbi.bankappspringdatajpa.dto;
+
+import com.rbi.bankappspringdatajpa.money.JsonMoney;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// days without transactions are left out of days
+public record AccountSummaryDto(String accountNumber, LocalDate from, LocalDate to,
+                                @JsonMoney long credits, @JsonMoney long debits, List<DailySummaryDto> days) {
+}
@@ -1,4 +1,6 @@
 package com.rbi.bankappspringdatajpa.dto;
 
-public record AccountTransactionRequestDto(String accountNumber, double amount) {
+import com.rbi.bankappspringdatajpa.money.JsonMoney;
+
+public record AccountTransactionRequestDto(String accountNumber, @JsonMoney long amount) {
 }
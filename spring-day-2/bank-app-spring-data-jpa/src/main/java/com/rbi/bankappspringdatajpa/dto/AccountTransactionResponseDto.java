@@ -1,10 +1,12 @@
 package com.rbi.bankappspringdatajpa.dto;
 
+import com.rbi.bankappspringdatajpa.money.JsonMoney;
+
 import com.rbi.bankappspringdatajpa.model.TransactionType;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 
-public record AccountTransactionResponseDto(String accountNumber, long transactionId, LocalDate date, LocalTime time, double amount, TransactionType type) {
+public record AccountTransactionResponseDto(String accountNumber, long transactionId, LocalDate date, LocalTime time, @JsonMoney long amount, TransactionType type) {
 }
@@ -0,0 +1,6 @@
+package com.rbi.bankappspringdatajpa.dto;
+
+import com.rbi.bankappspringdatajpa.money.JsonMoney;
+
+public record BatchTransactionResponseDto(int transactionCount, int accountCount, @JsonMoney long totalCredits, @JsonMoney long totalDebits) {
+}
@@ -0,0 +1,9 @@
+package com.rbi.bankappspringdatajpa.dto;
+
+import com.rbi.bankappspringdatajpa.money.JsonMoney;
+
+import java.time.LocalDate;
+
+public record DailySummaryDto(LocalDate date, @JsonMoney long credits, long creditCount,
+                              @JsonMoney long debits, long debitCount) {
+}
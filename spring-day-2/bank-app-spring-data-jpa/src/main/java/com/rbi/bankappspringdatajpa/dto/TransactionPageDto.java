@@ -0,0 +1,7 @@
+package com.rbi.bankappspringdatajpa.dto;
+
+import java.util.List;
+
+// newest first, nextCursor is null on the last page
+public record TransactionPageDto(List<AccountTransactionResponseDto> transactions, String nextCursor) {
+}
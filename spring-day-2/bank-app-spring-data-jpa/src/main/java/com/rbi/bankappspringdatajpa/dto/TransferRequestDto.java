@@ -0,0 +1,6 @@
+package com.rbi.bankappspringdatajpa.dto;
+
+import com.rbi.bankappspringdatajpa.money.JsonMoney;
+
+public record TransferRequestDto(String fromAccountNumber, String toAccountNumber, @JsonMoney long amount) {
+}
@@ -0,0 +1,4 @@
+package com.rbi.bankappspringdatajpa.dto;
+
+public record TransferResponseDto(AccountTransactionResponseDto debit, AccountTransactionResponseDto credit) {
+}
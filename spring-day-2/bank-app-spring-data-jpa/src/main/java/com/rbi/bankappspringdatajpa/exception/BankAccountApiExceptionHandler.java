@@ -9,17 +9,26 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
+/**
+ * Maps the {@link BusinessException}s to 4xx responses. A 404 is the most frequent of them, so its timestamp is
+ * shared by all errors of the same second instead of reading the clock and building a {@link LocalDateTime} each time.
+ * {@link ProblemDetail}s are built per response, Spring fills in their {@code instance} so they cannot be shared.
+ */
 @RestControllerAdvice
 public class BankAccountApiExceptionHandler {
 
+    private volatile Timestamp timestamp = new Timestamp(-1, null);
+
     @ExceptionHandler(RecordNotFoundException.class)
     public ResponseEntity<ErrorResponseDto> handleRecordNotFoundException(RecordNotFoundException ex,
                                                                          HttpServletRequest request){
         HttpStatus status = HttpStatus.NOT_FOUND;
         ErrorResponseDto dto = new ErrorResponseDto(
-                LocalDateTime.now(),
+                currentSecond(),
                 status.value(),
                 status.getReasonPhrase(),
                 ex.getMessage(),
@@ -52,6 +61,40 @@ public class BankAccountApiExceptionHandler {
         return response;
     }
 
+    @ExceptionHandler(InvalidRequestException.class)
+    public ProblemDetail handleInvalidRequestException(InvalidRequestException ex){
+        ProblemDetail response = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
+        response.setDetail(ex.getMessage());
+        return response;
+    }
+
+    @ExceptionHandler(IdempotencyKeyReuseException.class)
+    public ProblemDetail handleIdempotencyKeyReuseException(IdempotencyKeyReuseException ex){
+        ProblemDetail response = ProblemDetail.forStatus(HttpStatus.UNPROCESSABLE_ENTITY);
+        response.setDetail(ex.getMessage());
+        return response;
+    }
 
+    @ExceptionHandler(InsufficientBalanceException.class)
+    public ProblemDetail handleInsufficientBalanceException(InsufficientBalanceException ex){
+        ProblemDetail response = ProblemDetail.forStatus(HttpStatus.UNPROCESSABLE_ENTITY);
+        response.setDetail(ex.getMessage());
+        return response;
+    }
+
+    private LocalDateTime currentSecond(){
+        long epochSecond = System.currentTimeMillis() / 1000;
+        Timestamp current = timestamp;
+        if (current.epochSecond() != epochSecond) {
+            // racing threads compute the same value, whichever write wins is correct
+            current = new Timestamp(epochSecond,
+                    LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault()));
+            timestamp = current;
+        }
+        return current.value();
+    }
+
+    private record Timestamp(long epochSecond, LocalDateTime value) {
+    }
 
 }
@@ -0,0 +1,13 @@
+package com.rbi.bankappspringdatajpa.exception;
+
+/**
+ * An expected outcome of a request, such as an unknown account or an insufficient balance, that becomes a 4xx
+ * response. These are thrown for every bad lookup a scanner or retrying client sends and are never logged with a
+ * trace, so they skip the stack walk and cannot carry suppressed exceptions.
+ */
+public abstract class BusinessException extends RuntimeException {
+
+    protected BusinessException(String message) {
+        super(message, null, false, false);
+    }
+}
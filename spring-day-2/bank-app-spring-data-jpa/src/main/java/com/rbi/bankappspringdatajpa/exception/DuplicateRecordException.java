@@ -1,7 +1,7 @@
 package com.rbi.bankappspringdatajpa.exception;
 
 
-public class DuplicateRecordException extends RuntimeException{
+public class DuplicateRecordException extends BusinessException{
 
     public DuplicateRecordException(String message) {
         super(message);
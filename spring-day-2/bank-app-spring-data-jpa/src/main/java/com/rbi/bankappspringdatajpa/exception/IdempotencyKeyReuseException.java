@@ -0,0 +1,9 @@
+package com.rbi.bankappspringdatajpa.exception;
+
+
+public class IdempotencyKeyReuseException extends BusinessException{
+
+    public IdempotencyKeyReuseException(String message) {
+        super(message);
+    }
+}
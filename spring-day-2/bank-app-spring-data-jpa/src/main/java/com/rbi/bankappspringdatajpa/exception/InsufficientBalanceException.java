@@ -0,0 +1,9 @@
+package com.rbi.bankappspringdatajpa.exception;
+
+
+public class InsufficientBalanceException extends BusinessException{
+
+    public InsufficientBalanceException(String message) {
+        super(message);
+    }
+}
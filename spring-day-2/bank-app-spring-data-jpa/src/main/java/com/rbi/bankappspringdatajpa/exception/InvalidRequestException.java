@@ -0,0 +1,9 @@
+package com.rbi.bankappspringdatajpa.exception;
+
+
+public class InvalidRequestException extends BusinessException{
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
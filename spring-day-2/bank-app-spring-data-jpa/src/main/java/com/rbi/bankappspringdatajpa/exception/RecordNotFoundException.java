@@ -1,9 +1,7 @@
 package com.rbi.bankappspringdatajpa.exception;
 
-import org.springframework.web.bind.annotation.ExceptionHandler;
 
-
-public class RecordNotFoundException extends RuntimeException{
+public class RecordNotFoundException extends BusinessException{
 
     public RecordNotFoundException(String message) {
         super(message);
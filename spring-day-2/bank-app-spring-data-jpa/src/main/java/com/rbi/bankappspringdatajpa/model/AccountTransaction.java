@@ -1,27 +1,91 @@
 package com.rbi.bankappspringdatajpa.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.rbi.bankappspringdatajpa.money.JsonMoney;
+import com.rbi.bankappspringdatajpa.money.MoneyConverter;
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 
+// equality is the transaction id, toString leaves out the account so that logging a transaction does not load it
 @Entity
-@Data
-@AllArgsConstructor
+@Getter
+@Setter
+@ToString(exclude = "account")
 @NoArgsConstructor
-public class AccountTransaction {
+// serves the statement query: equality on the account, range and ordering on date and time,
+// and the ledger balance and compaction queries, which only look at pending postings
+@Table(indexes = {
+        @Index(name = "idx_account_transaction_account_date_time", columnList = "account_account_number, date, time"),
+        @Index(name = "idx_account_transaction_pending_account", columnList = "pending, account_account_number")})
+public class AccountTransaction implements Persistable<Long> {
     @Id
     private long transactionId;
     private LocalDate date;
     private LocalTime time;
-    private double amount;
+    @Convert(converter = MoneyConverter.class)
+    @Column(precision = 19, scale = 2)
+    @JsonMoney
+    private long amount;
     @Enumerated(EnumType.STRING)
     private TransactionType transactionType;
-    @ManyToOne
+    // the postings only ever need the account number, which a proxy holds without a select
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_account_number")
     private BankAccount account;
+    // ledger mode: not yet included in the account's balance snapshot
+    private boolean pending;
+
+    // ids are assigned up front, this lets save() persist new rows without a select to check for an existing one
+    @Transient
+    @JsonIgnore
+    private boolean persisted;
+
+    public AccountTransaction(long transactionId, LocalDate date, LocalTime time, long amount,
+                              TransactionType transactionType, BankAccount account) {
+        this.transactionId = transactionId;
+        this.date = date;
+        this.time = time;
+        this.amount = amount;
+        this.transactionType = transactionType;
+        this.account = account;
+    }
+
+    @Override
+    @JsonIgnore
+    public Long getId() {
+        return transactionId;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof AccountTransaction other && transactionId == other.getTransactionId();
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(transactionId);
+    }
 
 }
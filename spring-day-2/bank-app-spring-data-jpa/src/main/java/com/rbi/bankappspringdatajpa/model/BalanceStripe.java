@@ -0,0 +1,37 @@
+package com.rbi.bankappspringdatajpa.model;
+
+import com.rbi.bankappspringdatajpa.money.MoneyConverter;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// one of the rows a striped account takes its deposits on, the balance is bank_account.balance plus all of them
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(BalanceStripe.Key.class)
+@Table(name = "balance_stripe")
+public class BalanceStripe {
+    @Id
+    @Column(length = 12)
+    private String accountNumber;
+    @Id
+    private int stripe;
+    // minor units, never negative: stripes only take credits
+    @Convert(converter = MoneyConverter.class)
+    @Column(precision = 19, scale = 2)
+    private long balance;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String accountNumber;
+        private int stripe;
+    }
+
+}
@@ -2,23 +2,39 @@ package com.rbi.bankappspringdatajpa.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.rbi.bankappspringdatajpa.money.JsonMoney;
+import com.rbi.bankappspringdatajpa.money.MoneyConverter;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
-@Data
+// Not @Data: equals, hashCode and toString must not touch the lazy transaction history, which can be any size.
+// Equality is the account number, which is assigned before the account is saved and never changes.
+@Getter
+@Setter
+@ToString(exclude = "transactions")
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
 @Table(name = "bank_account")
+// second-level cache, findById is served from here across transactions, see hibernate-jcache.conf
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = BankAccount.CACHE_REGION)
 public class BankAccount {
 
+    public static final String CACHE_REGION = "bank-account";
+
 //    @Id
 //    @GeneratedValue(strategy = GenerationType.AUTO)
 //    private long id;
@@ -26,10 +42,41 @@ public class BankAccount {
     @Column( length = 12)
     private String accountNumber;
     private String accountHolderName;
-    private double balance;
+    // minor units, see Money
+    @Convert(converter = MoneyConverter.class)
+    @Column(precision = 19, scale = 2)
+    @JsonMoney
+    private long balance;
     private String accountType;
-    @OneToMany(mappedBy = "account")
+    // never loaded by the application, history is read through AccountTransactionRepo
+    @OneToMany(mappedBy = "account", fetch = FetchType.LAZY)
     @JsonIgnore
     private Set<AccountTransaction> transactions = new HashSet<>();
 
+    // bumped on every balance change, used for optimistic locking
+    @Version
+    @JsonIgnore
+    private long version;
+
+    public BankAccount(String accountNumber, String accountHolderName, long balance, String accountType, Set<AccountTransaction> transactions) {
+        this(accountNumber, accountHolderName, balance, accountType, transactions, 0);
+    }
+
+    // instanceof and the getter, so that an uninitialized proxy of the same account is equal without loading it
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BankAccount other)) {
+            return false;
+        }
+        return accountNumber != null && accountNumber.equals(other.getAccountNumber());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(accountNumber);
+    }
+
 }
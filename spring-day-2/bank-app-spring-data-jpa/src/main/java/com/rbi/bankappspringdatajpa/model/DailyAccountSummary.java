@@ -0,0 +1,42 @@
+package com.rbi.bankappspringdatajpa.model;
+
+import com.rbi.bankappspringdatajpa.money.MoneyConverter;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// credits and debits of one account on one day, kept up to date as transactions are saved
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(DailyAccountSummary.Key.class)
+@Table(name = "daily_account_summary")
+public class DailyAccountSummary {
+    @Id
+    @Column(length = 12)
+    private String accountNumber;
+    @Id
+    private LocalDate summaryDate;
+    @Convert(converter = MoneyConverter.class)
+    @Column(precision = 19, scale = 2)
+    private long creditTotal;
+    private long creditCount;
+    @Convert(converter = MoneyConverter.class)
+    @Column(precision = 19, scale = 2)
+    private long debitTotal;
+    private long debitCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String accountNumber;
+        private LocalDate summaryDate;
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.rbi.bankappspringdatajpa.model;
+
+import com.rbi.bankappspringdatajpa.money.MoneyConverter;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// credits of a striped account on one day, spread over stripes like its balance; the day's figures are its
+// daily_account_summary row plus all of these
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(DailySummaryStripe.Key.class)
+@Table(name = "daily_summary_stripe")
+public class DailySummaryStripe {
+    @Id
+    @Column(length = 12)
+    private String accountNumber;
+    @Id
+    private LocalDate summaryDate;
+    @Id
+    private int stripe;
+    @Convert(converter = MoneyConverter.class)
+    @Column(precision = 19, scale = 2)
+    private long creditTotal;
+    private long creditCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String accountNumber;
+        private LocalDate summaryDate;
+        private int stripe;
+    }
+
+}
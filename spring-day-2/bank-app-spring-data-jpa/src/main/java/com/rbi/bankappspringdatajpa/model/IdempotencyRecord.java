@@ -0,0 +1,54 @@
+package com.rbi.bankappspringdatajpa.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+// the response of a request made with an Idempotency-Key, replayed when the same key is sent again
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "idempotency_record",
+        indexes = @Index(name = "idx_idempotency_record_expires_at", columnList = "expires_at"))
+public class IdempotencyRecord implements Persistable<String> {
+    @Id
+    @Column(length = 64)
+    private String idempotencyKey;
+    // SHA-256 of the operation and its arguments, a key may not be reused for a different request
+    @Column(length = 64)
+    private String request;
+    @Column(length = 4000)
+    private String response;
+    private Instant expiresAt;
+
+    @Transient
+    private boolean persisted;
+
+    public IdempotencyRecord(String idempotencyKey, String request, String response, Instant expiresAt) {
+        this.idempotencyKey = idempotencyKey;
+        this.request = request;
+        this.response = response;
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    // the key is assigned by the client, save() inserts without selecting first and a repeat fails on the primary key
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.rbi.bankappspringdatajpa.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+// an event waiting to be relayed, written in the transaction that creates the AccountTransaction it describes
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "outbox_event", indexes = @Index(name = "idx_outbox_event_created_at", columnList = "created_at"))
+public class OutboxEvent implements Persistable<Long> {
+    // the transaction id, consumers use it to drop the duplicates an at-least-once relay can deliver
+    @Id
+    private long eventId;
+    @Column(length = 64)
+    private String eventType;
+    @Column(length = 12)
+    private String accountNumber;
+    @Column(length = 4000)
+    private String payload;
+    private Instant createdAt;
+
+    @Transient
+    private boolean persisted;
+
+    public OutboxEvent(long eventId, String eventType, String accountNumber, String payload, Instant createdAt) {
+        this.eventId = eventId;
+        this.eventType = eventType;
+        this.accountNumber = accountNumber;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public Long getId() {
+        return eventId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.rbi.bankappspringdatajpa.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amounts are held as a {@code long} count of minor units (paise, cents) so that balance arithmetic is exact and
+ * allocation free. {@link BigDecimal} is only used at the edges: DECIMAL columns, JSON and configuration.
+ */
+public final class Money {
+
+    // digits after the decimal point in every amount the API accepts or returns
+    public static final int SCALE = 2;
+
+    private static final long MINOR_UNITS_PER_MAJOR = 100;
+
+    private Money() {
+    }
+
+    // throws ArithmeticException when the amount has more than SCALE decimals or does not fit in a long
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    public static long toMinorUnits(String amount) {
+        return toMinorUnits(new BigDecimal(amount));
+    }
+
+    public static long ofMajorUnits(long amount) {
+        return Math.multiplyExact(amount, MINOR_UNITS_PER_MAJOR);
+    }
+
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    // the exact decimal text, e.g. 12345 -> "123.45", written without going through BigDecimal
+    public static String format(long minorUnits) {
+        long major = minorUnits / MINOR_UNITS_PER_MAJOR;
+        long minor = Math.abs(minorUnits % MINOR_UNITS_PER_MAJOR);
+        StringBuilder text = new StringBuilder(24);
+        if (minorUnits < 0 && major == 0) {
+            text.append('-');
+        }
+        text.append(major).append('.');
+        if (minor < 10) {
+            text.append('0');
+        }
+        return text.append(minor).toString();
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.rbi.bankappspringdatajpa.money;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+import java.io.IOException;
+
+// reads a JSON number (or numeric string) in major units into minor units without going through a double
+public class MoneyDeserializer extends StdDeserializer<Long> {
+
+    public MoneyDeserializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        try {
+            if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                return Money.ofMajorUnits(parser.getLongValue());
+            }
+            if (parser.currentToken() == JsonToken.VALUE_NUMBER_FLOAT) {
+                return Money.toMinorUnits(parser.getDecimalValue());
+            }
+            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                return Money.toMinorUnits(parser.getText().trim());
+            }
+        } catch (ArithmeticException | NumberFormatException ex) {
+            throw InvalidFormatException.from(parser,
+                    "Not an amount with at most " + Money.SCALE + " decimals", parser.getText(), Long.class);
+        }
+        return (Long) context.handleUnexpectedToken(Long.class, parser);
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.rbi.bankappspringdatajpa.monitoring;
+
+import com.rbi.bankappspringdatajpa.exception.DuplicateRecordException;
+import com.rbi.bankappspringdatajpa.exception.InsufficientBalanceException;
+import com.rbi.bankappspringdatajpa.exception.InvalidRequestException;
+import com.rbi.bankappspringdatajpa.exception.RecordNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Times every {@code BankAccountService} call in {@code bank.account.operation}, tagged with the operation
+ * (method name) and its outcome, so latency SLOs and error rates can be tracked per operation.
+ */
+@Aspect
+@Component
+public class BankAccountServiceMetrics {
+
+    static final String METRIC_NAME = "bank.account.operation";
+
+    private final MeterRegistry meterRegistry;
+    // registered once per operation and outcome, not looked up in the registry on every call
+    private final Map<Outcome, ConcurrentMap<String, Timer>> timers = new EnumMap<>(Outcome.class);
+
+    public BankAccountServiceMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Outcome outcome : Outcome.values()) {
+            timers.put(outcome, new ConcurrentHashMap<>());
+        }
+    }
+
+    @Around("execution(* com.rbi.bankappspringdatajpa.service.BankAccountService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Outcome outcome = Outcome.SUCCESS;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            outcome = Outcome.of(ex);
+            throw ex;
+        } finally {
+            sample.stop(timer(joinPoint.getSignature().getName(), outcome));
+        }
+    }
+
+    private Timer timer(String operation, Outcome outcome) {
+        return timers.get(outcome).computeIfAbsent(operation, name -> Timer.builder(METRIC_NAME)
+                .description("Bank account service operations")
+                .tag("operation", name)
+                .tag("outcome", outcome.tag)
+                .register(meterRegistry));
+    }
+
+    private enum Outcome {
+        SUCCESS("success"),
+        NOT_FOUND("not_found"),
+        DUPLICATE("duplicate"),
+        INSUFFICIENT_BALANCE("insufficient_balance"),
+        INVALID_REQUEST("invalid_request"),
+        ERROR("error");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+
+        static Outcome of(Throwable ex) {
+            if (ex instanceof RecordNotFoundException) {
+                return NOT_FOUND;
+            }
+            if (ex instanceof DuplicateRecordException) {
+                return DUPLICATE;
+            }
+            if (ex instanceof InsufficientBalanceException) {
+                return INSUFFICIENT_BALANCE;
+            }
+            if (ex instanceof InvalidRequestException) {
+                return INVALID_REQUEST;
+            }
+            return ERROR;
+        }
+    }
+
+}
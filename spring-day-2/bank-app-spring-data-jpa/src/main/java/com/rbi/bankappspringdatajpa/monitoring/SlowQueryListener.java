@@ -0,0 +1,96 @@
+package com.rbi.bankappspringdatajpa.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Records every JDBC execution in a {@code bank.db.query} timer tagged with a short statement fingerprint
+ * (operation and table) and whether it was a batch, and logs only the executions slower than the threshold. A batch
+ * is one execution with one elapsed time, so it is one sample and at most one log line however many statements it
+ * carried. The fast path is a map lookup and a timer update, nothing is formatted or written unless the statement was
+ * slow.
+ */
+public class SlowQueryListener implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryListener.class);
+
+    private static final Pattern TABLE = Pattern.compile("\\b(?:from|into|update)\\s+([a-z0-9_.]+)");
+    // statements with varying in-lists would otherwise grow the map without bound
+    private static final int MAX_CACHED_STATEMENTS = 1_000;
+
+    private final Supplier<MeterRegistry> meterRegistry;
+    private final long thresholdMillis;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> batchTimers = new ConcurrentHashMap<>();
+
+    public SlowQueryListener(Supplier<MeterRegistry> meterRegistry, long thresholdMillis) {
+        this.meterRegistry = meterRegistry;
+        this.thresholdMillis = thresholdMillis;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (queryInfoList.isEmpty()) {
+            return;
+        }
+        long elapsed = execInfo.getElapsedTime();
+        // the statements of a batch are the same insert or update, the first one names the execution
+        String sql = queryInfoList.get(0).getQuery();
+        timerFor(sql, execInfo.isBatch()).record(elapsed, TimeUnit.MILLISECONDS);
+        if (elapsed >= thresholdMillis) {
+            int bindCount = 0;
+            for (QueryInfo queryInfo : queryInfoList) {
+                bindCount += queryInfo.getParametersList().stream().mapToInt(List::size).sum();
+            }
+            log.warn("slow_query elapsed_ms={} statement=\"{}\" batch={} batch_size={} statements={} bind_count={} success={} sql=\"{}\"",
+                    elapsed, fingerprint(sql), execInfo.isBatch(), execInfo.getBatchSize(), queryInfoList.size(),
+                    bindCount, execInfo.isSuccess(), sql);
+        }
+    }
+
+    private Timer timerFor(String sql, boolean batch) {
+        Map<String, Timer> cached = batch ? batchTimers : timers;
+        Timer timer = cached.get(sql);
+        if (timer != null) {
+            return timer;
+        }
+        timer = Timer.builder("bank.db.query")
+                .description("JDBC statement execution time")
+                .tag("statement", fingerprint(sql))
+                .tag("batch", Boolean.toString(batch))
+                .publishPercentileHistogram()
+                .register(meterRegistry.get());
+        if (cached.size() < MAX_CACHED_STATEMENTS) {
+            cached.put(sql, timer);
+        }
+        return timer;
+    }
+
+    // "select account_transaction", "update bank_account", ... low cardinality tag for a statement
+    static String fingerprint(String sql) {
+        String normalized = sql.strip().toLowerCase(Locale.ROOT);
+        int firstSpace = normalized.indexOf(' ');
+        String operation = firstSpace < 0 ? normalized : normalized.substring(0, firstSpace);
+        Matcher table = TABLE.matcher(normalized);
+        return table.find() ? operation + " " + table.group(1) : operation;
+    }
+
+}
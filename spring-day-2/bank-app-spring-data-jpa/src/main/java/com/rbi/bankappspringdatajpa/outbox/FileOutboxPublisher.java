@@ -0,0 +1,37 @@
+package com.rbi.bankappspringdatajpa.outbox;
+
+import com.rbi.bankappspringdatajpa.model.OutboxEvent;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// appends one JSON payload per line, the file is forced to disk before the batch counts as delivered
+public class FileOutboxPublisher implements OutboxPublisher {
+
+    private final Path file;
+
+    public FileOutboxPublisher(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+            for (OutboxEvent event : events) {
+                writer.write(event.getPayload());
+                writer.write('\n');
+            }
+            writer.flush();
+            channel.force(false);
+        }
+    }
+
+}
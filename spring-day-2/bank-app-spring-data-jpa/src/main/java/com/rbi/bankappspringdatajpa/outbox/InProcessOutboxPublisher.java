@@ -0,0 +1,22 @@
+package com.rbi.bankappspringdatajpa.outbox;
+
+import com.rbi.bankappspringdatajpa.model.OutboxEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+// hands every event to @EventListener methods in this application, for local development and tests
+public class InProcessOutboxPublisher implements OutboxPublisher {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public InProcessOutboxPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        events.forEach(eventPublisher::publishEvent);
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.rbi.bankappspringdatajpa.outbox;
+
+import com.rbi.bankappspringdatajpa.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Delivers relayed events downstream. Throwing leaves the whole batch in the outbox to be delivered again, so a
+ * publisher may see an event more than once and consumers dedupe on {@link OutboxEvent#getEventId()}.
+ */
+public interface OutboxPublisher {
+
+    void publish(List<OutboxEvent> events) throws Exception;
+
+}
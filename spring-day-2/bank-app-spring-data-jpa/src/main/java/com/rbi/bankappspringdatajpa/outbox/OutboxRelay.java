@@ -0,0 +1,102 @@
+package com.rbi.bankappspringdatajpa.outbox;
+
+import com.rbi.bankappspringdatajpa.model.OutboxEvent;
+import com.rbi.bankappspringdatajpa.repository.OutboxEventRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox in batches of {@code account.outbox.batch_size}. A batch is locked, published and deleted in one
+ * transaction: a failed publish or commit leaves it in place to be sent again, so delivery is at least once.
+ *
+ * <p>Metrics: {@code bank.outbox.published} counts delivered events, {@code bank.outbox.delivery.lag} times each
+ * event from commit to delivery and {@code bank.outbox.oldest.age} is the age of the oldest undelivered event after
+ * the last run, in seconds.
+ */
+@Component
+@ConditionalOnProperty(name = "account.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepo outboxRepo;
+    private final OutboxPublisher publisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter published;
+    private final Timer deliveryLag;
+    private final AtomicLong oldestAgeMillis = new AtomicLong();
+
+    public OutboxRelay(OutboxEventRepo outboxRepo, OutboxPublisher publisher,
+                       PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                       @Value("${account.outbox.batch_size:500}") int batchSize) {
+        this.outboxRepo = outboxRepo;
+        this.publisher = publisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.published = Counter.builder("bank.outbox.published")
+                .description("Outbox events delivered to the publisher")
+                .register(meterRegistry);
+        this.deliveryLag = Timer.builder("bank.outbox.delivery.lag")
+                .description("Time from writing an outbox event to delivering it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        meterRegistry.gauge("bank.outbox.oldest.age", oldestAgeMillis, age -> age.get() / 1000.0);
+    }
+
+    // returns the number of events delivered, keeps going while batches come back full
+    @Scheduled(fixedDelayString = "${account.outbox.poll_interval:PT1S}")
+    public int relay() {
+        int delivered = 0;
+        try {
+            int batch;
+            do {
+                batch = transactionTemplate.execute(status -> relayBatch());
+                delivered += batch;
+            } while (batch == batchSize);
+        } catch (RuntimeException ex) {
+            log.warn("outbox relay stopped after {} events, the rest is retried on the next run", delivered, ex);
+        }
+        Instant now = Instant.now();
+        oldestAgeMillis.set(outboxRepo.findFirstByOrderByCreatedAt()
+                .map(event -> Duration.between(event.getCreatedAt(), now).toMillis())
+                .orElse(0L));
+        return delivered;
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = outboxRepo.findNextBatchForUpdate(Limit.of(batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        try {
+            publisher.publish(events);
+        } catch (Exception e) {
+            throw new IllegalStateException("Publishing " + events.size() + " outbox events failed", e);
+        }
+        // one "where event_id in (...)" delete, deleteAllInBatch(events) would compare the entities one "or" at a time
+        outboxRepo.deleteAllByIdInBatch(events.stream().map(OutboxEvent::getEventId).toList());
+        Instant now = Instant.now();
+        for (OutboxEvent event : events) {
+            deliveryLag.record(Duration.between(event.getCreatedAt(), now));
+        }
+        published.increment(events.size());
+        return events.size();
+    }
+
+}
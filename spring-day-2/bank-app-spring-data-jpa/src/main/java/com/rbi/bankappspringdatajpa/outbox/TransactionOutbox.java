@@ -0,0 +1,51 @@
+package com.rbi.bankappspringdatajpa.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionResponseDto;
+import com.rbi.bankappspringdatajpa.model.AccountTransaction;
+import com.rbi.bankappspringdatajpa.model.OutboxEvent;
+import com.rbi.bankappspringdatajpa.repository.OutboxEventRepo;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes one outbox event per {@link AccountTransaction}. Must be called in the transaction that saves the
+ * transactions, so an event exists exactly when its transaction committed.
+ */
+@Component
+public class TransactionOutbox {
+
+    public static final String TRANSACTION_CREATED = "AccountTransactionCreated";
+
+    private final OutboxEventRepo outboxRepo;
+    private final ObjectWriter payloadWriter;
+
+    public TransactionOutbox(OutboxEventRepo outboxRepo, ObjectMapper objectMapper) {
+        this.outboxRepo = outboxRepo;
+        this.payloadWriter = objectMapper.writerFor(AccountTransactionResponseDto.class);
+    }
+
+    public void append(List<AccountTransaction> transactions) {
+        Instant now = Instant.now();
+        List<OutboxEvent> events = new ArrayList<>(transactions.size());
+        for (AccountTransaction transaction : transactions) {
+            String accountNumber = transaction.getAccount().getAccountNumber();
+            AccountTransactionResponseDto payload = new AccountTransactionResponseDto(accountNumber,
+                    transaction.getTransactionId(), transaction.getDate(), transaction.getTime(),
+                    transaction.getAmount(), transaction.getTransactionType());
+            try {
+                events.add(new OutboxEvent(transaction.getTransactionId(), TRANSACTION_CREATED, accountNumber,
+                        payloadWriter.writeValueAsString(payload), now));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Transaction [" + transaction.getTransactionId() + "] cannot be serialized", e);
+            }
+        }
+        outboxRepo.saveAll(events);
+    }
+
+}
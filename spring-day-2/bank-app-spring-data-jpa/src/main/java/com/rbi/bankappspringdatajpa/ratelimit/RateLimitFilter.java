@@ -0,0 +1,167 @@
+package com.rbi.bankappspringdatajpa.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Limits requests per client and per account with the rules in {@link RateLimitProperties}. Every client and every
+ * account of a rule has its own {@link TokenBucket}. The buckets are held in a bounded cache and dropped when idle, an
+ * idle bucket has refilled completely, so dropping it changes nothing. A refused request gets a 429 with a
+ * {@code Retry-After} header before it reaches a controller or takes a database connection. It is counted in
+ * {@code bank.rate_limit.throttled}, tagged with the rule and whether the client or the account limit refused it.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String THROTTLED_METRIC = "bank.rate_limit.throttled";
+    static final String BUCKETS_METRIC = "bank.rate_limit.buckets";
+
+    private static final String ACCOUNT_NUMBER = "accountNumber";
+
+    private final List<CompiledRule> rules;
+    private final String clientHeader;
+    private final Cache<BucketKey, TokenBucket> buckets;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.rules = properties.rules().stream().map(rule -> compile(rule, properties, meterRegistry)).toList();
+        this.clientHeader = properties.clientHeader();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maxBuckets())
+                .expireAfterAccess(properties.idleTimeout())
+                .build();
+        this.objectMapper = objectMapper;
+        Gauge.builder(BUCKETS_METRIC, buckets, Cache::estimatedSize)
+                .description("Token buckets held by the rate limiter")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (CompiledRule rule : rules) {
+            if (rule.method() != null && !rule.method().equals(request.getMethod())) {
+                continue;
+            }
+            PathPattern.PathMatchInfo match = rule.pattern().matchAndExtract(path);
+            if (match == null) {
+                continue;
+            }
+            long now = System.nanoTime();
+            // a request refused for its account has still used a token of its client
+            if (rule.perClient() != null && throttled(rule, rule.perClient(), client(request), now, response)) {
+                return;
+            }
+            String accountNumber = match.getUriVariables().get(ACCOUNT_NUMBER);
+            if (rule.perAccount() != null && accountNumber != null
+                    && throttled(rule, rule.perAccount(), accountNumber, now, response)) {
+                return;
+            }
+            break;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private boolean throttled(CompiledRule rule, ScopedLimit limit, String key, long now,
+                              HttpServletResponse response) throws IOException {
+        TokenBucket bucket = buckets.get(new BucketKey(rule.name(), limit.scope(), key),
+                k -> new TokenBucket(limit.limit().capacity(), limit.limit().perSecond(), now));
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos == 0) {
+            return false;
+        }
+        limit.throttled().increment();
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999) / 1_000_000_000);
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS,
+                "Too many requests for this " + limit.scope() + ", retry in " + retryAfterSeconds + " s");
+        problem.setProperty("rule", rule.name());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), problem);
+        return true;
+    }
+
+    private String client(HttpServletRequest request) {
+        if (StringUtils.hasText(clientHeader)) {
+            String client = request.getHeader(clientHeader);
+            if (StringUtils.hasText(client)) {
+                return client;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    // fails at startup on a rule that cannot work as configured
+    private static CompiledRule compile(RateLimitProperties.Rule rule, RateLimitProperties properties,
+                                        MeterRegistry meterRegistry) {
+        PathPattern pattern = PathPatternParser.defaultInstance.parse(rule.path());
+        if (rule.perAccount() != null && !rule.path().contains("{" + ACCOUNT_NUMBER + "}")) {
+            throw new IllegalArgumentException("Rate limit rule " + rule.name() + " has a per-account limit but no {"
+                    + ACCOUNT_NUMBER + "} in its path");
+        }
+        for (RateLimitProperties.Limit limit : Arrays.asList(rule.perClient(), rule.perAccount())) {
+            if (limit == null) {
+                continue;
+            }
+            if (limit.capacity() < 1 || !(limit.perSecond() > 0)) {
+                throw new IllegalArgumentException("Rate limit rule " + rule.name()
+                        + " needs a capacity of at least 1 and a per_second above 0");
+            }
+            if (limit.timeToRefill().compareTo(properties.idleTimeout()) > 0) {
+                throw new IllegalArgumentException("Rate limit rule " + rule.name() + " takes longer to refill than "
+                        + "account.rate_limit.idle_timeout, its buckets would be dropped before they are full");
+            }
+        }
+        String method = StringUtils.hasText(rule.method()) ? rule.method() : null;
+        return new CompiledRule(rule.name(), method, pattern,
+                scoped(rule, "client", rule.perClient(), meterRegistry),
+                scoped(rule, "account", rule.perAccount(), meterRegistry));
+    }
+
+    // the throttled counter is registered here, once per rule and scope, refused requests only increment it
+    private static ScopedLimit scoped(RateLimitProperties.Rule rule, String scope, RateLimitProperties.Limit limit,
+                                      MeterRegistry meterRegistry) {
+        if (limit == null) {
+            return null;
+        }
+        Counter throttled = Counter.builder(THROTTLED_METRIC)
+                .description("Requests refused by the rate limiter")
+                .tag("rule", rule.name())
+                .tag("scope", scope)
+                .register(meterRegistry);
+        return new ScopedLimit(scope, limit, throttled);
+    }
+
+    private record CompiledRule(String name, String method, PathPattern pattern, ScopedLimit perClient,
+                                ScopedLimit perAccount) {
+    }
+
+    private record ScopedLimit(String scope, RateLimitProperties.Limit limit, Counter throttled) {
+    }
+
+    private record BucketKey(String rule, String scope, String key) {
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.rbi.bankappspringdatajpa.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@code account.rate_limit} in application.yml. A request is limited by the first rule matching its method and path,
+ * requests no rule matches are not limited.
+ *
+ * @param idleTimeout  buckets not used for this long are dropped, must be longer than any bucket takes to refill
+ * @param maxBuckets   buckets kept at most, the least recently used ones are dropped first
+ * @param clientHeader request header naming the client, for example set by a gateway; the remote address when empty
+ */
+@ConfigurationProperties("account.rate-limit")
+public record RateLimitProperties(boolean enabled,
+                                  @DefaultValue("PT10M") Duration idleTimeout,
+                                  @DefaultValue("100000") long maxBuckets,
+                                  String clientHeader,
+                                  @DefaultValue List<Rule> rules) {
+
+    /**
+     * @param method     HTTP method, any when empty
+     * @param path       a Spring path pattern, per-account limits need an {@code {accountNumber}} variable in it
+     * @param perClient  the limit for each client, none when missing
+     * @param perAccount the limit for each account, none when missing
+     */
+    public record Rule(String name, String method, String path, Limit perClient, Limit perAccount) {
+    }
+
+    public record Limit(int capacity, double perSecond) {
+
+        Duration timeToRefill() {
+            return Duration.ofNanos(Math.round(capacity / perSecond * 1e9));
+        }
+
+    }
+
+}
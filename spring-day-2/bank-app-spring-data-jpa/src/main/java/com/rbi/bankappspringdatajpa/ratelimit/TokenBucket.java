@@ -0,0 +1,41 @@
+package com.rbi.bankappspringdatajpa.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bucket of {@code capacity} tokens, refilled at a fixed rate. Instead of a token count and a refill time it keeps
+ * one timestamp, the moment at which the bucket would be full again if nothing else were taken, so that taking a
+ * token is a single compare-and-set. Every token taken pushes that moment out by the time one token takes to refill,
+ * and a token is refused while the moment lies more than a full refill ahead.
+ */
+public final class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long nanosToRefill;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(int capacity, double tokensPerSecond, long nowNanos) {
+        if (capacity < 1 || !(tokensPerSecond > 0)) {
+            throw new IllegalArgumentException("capacity must be at least 1 and tokensPerSecond above 0");
+        }
+        this.nanosPerToken = Math.max(1, Math.round(1e9 / tokensPerSecond));
+        this.nanosToRefill = Math.multiplyExact(capacity, nanosPerToken);
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    // 0 when a token was taken, otherwise the nanoseconds until the next one is available
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long full = fullAt.get();
+            long next = Math.max(full, nowNanos) + nanosPerToken;
+            long wait = next - nowNanos - nanosToRefill;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(full, next)) {
+                return 0;
+            }
+        }
+    }
+
+}
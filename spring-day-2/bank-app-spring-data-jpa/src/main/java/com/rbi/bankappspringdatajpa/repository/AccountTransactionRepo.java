@@ -1,7 +1,42 @@
 package com.rbi.bankappspringdatajpa.repository;
 
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionResponseDto;
 import com.rbi.bankappspringdatajpa.model.AccountTransaction;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
 
 public interface AccountTransactionRepo extends JpaRepository<AccountTransaction,Long> {
+
+    // statement queries select straight into the dto, t.account.accountNumber is the foreign key so no join is needed
+
+    @Query("select new com.rbi.bankappspringdatajpa.dto.AccountTransactionResponseDto(" +
+            "t.account.accountNumber, t.transactionId, t.date, t.time, t.amount, t.transactionType) " +
+            "from AccountTransaction t " +
+            "where t.account.accountNumber = :accountNumber and t.date between :from and :to " +
+            "order by t.date desc, t.time desc, t.transactionId desc")
+    List<AccountTransactionResponseDto> findStatement(String accountNumber, LocalDate from, LocalDate to, Limit limit);
+
+    // next page after (date, time, transactionId), keyset instead of offset so deep pages cost the same as the first
+    @Query("select new com.rbi.bankappspringdatajpa.dto.AccountTransactionResponseDto(" +
+            "t.account.accountNumber, t.transactionId, t.date, t.time, t.amount, t.transactionType) " +
+            "from AccountTransaction t " +
+            "where t.account.accountNumber = :accountNumber and t.date between :from and :to " +
+            "and (t.date < :date or (t.date = :date and (t.time < :time " +
+            "or (t.time = :time and t.transactionId < :transactionId)))) " +
+            "order by t.date desc, t.time desc, t.transactionId desc")
+    List<AccountTransactionResponseDto> findStatementAfter(String accountNumber, LocalDate from, LocalDate to,
+                                                           LocalDate date, LocalTime time, long transactionId,
+                                                           Limit limit);
+
+    // ledger mode: postings not yet folded into the balance snapshot
+    @Query("select distinct t.account.accountNumber from AccountTransaction t where t.pending = true")
+    List<String> findAccountsWithPendingPostings(Limit limit);
+
+    List<AccountTransaction> findByAccountAccountNumberAndPendingTrue(String accountNumber, Limit limit);
+
 }
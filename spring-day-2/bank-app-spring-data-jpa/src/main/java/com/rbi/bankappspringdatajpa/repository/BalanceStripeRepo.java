@@ -0,0 +1,52 @@
+package com.rbi.bankappspringdatajpa.repository;
+
+import com.rbi.bankappspringdatajpa.model.BalanceStripe;
+import com.rbi.bankappspringdatajpa.money.Money;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface BalanceStripeRepo extends JpaRepository<BalanceStripe, BalanceStripe.Key> {
+
+    boolean existsByAccountNumberAndStripe(String accountNumber, int stripe);
+
+    // returns 0 when the stripe does not exist
+    default int credit(String accountNumber, int stripe, long amount) {
+        return addToStripe(accountNumber, stripe, Money.toDecimal(amount));
+    }
+
+    // native so the amounts are bound as DECIMAL, like BankAccountBalanceUpdatesImpl
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "balance_stripe"))
+    @Query(nativeQuery = true, value = "update balance_stripe set balance = balance + :amount " +
+            "where account_number = :accountNumber and stripe = :stripe")
+    int addToStripe(String accountNumber, int stripe, BigDecimal amount);
+
+    // insert if absent, like DailyAccountSummaryRepo.insertEmpty
+    @Modifying
+    @Query("insert into BalanceStripe (accountNumber, stripe, balance) values (:accountNumber, :stripe, 0) " +
+            "on conflict do nothing")
+    int insertEmpty(String accountNumber, int stripe);
+
+    // all stripes of the account in stripe order, locked until the surrounding transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "5000"))
+    @Query("from BalanceStripe where accountNumber = :accountNumber order by stripe")
+    List<BalanceStripe> findByAccountNumberForUpdate(String accountNumber);
+
+    @Query("select distinct s.accountNumber from BalanceStripe s")
+    List<String> findAccountNumbers();
+
+    @Modifying
+    @Query("delete from BalanceStripe s where s.accountNumber = :accountNumber")
+    int deleteByAccountNumber(String accountNumber);
+
+}
@@ -0,0 +1,13 @@
+package com.rbi.bankappspringdatajpa.repository;
+
+import java.math.BigDecimal;
+
+// conditional balance updates that invalidate only the second-level cache entry of the account they change
+public interface BankAccountBalanceUpdates {
+
+    int addToBalance(String accountNumber, BigDecimal amount);
+
+    // returns 0 when the account does not exist or the debit would take the balance below minBalance
+    int subtractFromBalance(String accountNumber, BigDecimal amount, BigDecimal minBalance);
+
+}
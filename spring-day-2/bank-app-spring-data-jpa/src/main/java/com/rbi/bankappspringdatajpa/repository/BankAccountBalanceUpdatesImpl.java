@@ -0,0 +1,75 @@
+package com.rbi.bankappspringdatajpa.repository;
+
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TransactionRequiredException;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * The updates are plain SQL so that the amounts are bound as DECIMAL as given, JPQL would pass some of them through
+ * MoneyConverter and leave others unconverted depending on where they appear in the expression. Hibernate cannot tell
+ * which rows a native update changes, so it would empty the whole {@code bank-account} region and every cached query
+ * on {@code bank_account} after each one. Here the statement is run by the session directly, past that cleanup, and
+ * the one account is locked in the region instead until the transaction completes, as an entity update would.
+ */
+public class BankAccountBalanceUpdatesImpl implements BankAccountBalanceUpdates {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int addToBalance(String accountNumber, BigDecimal amount) {
+        return update(accountNumber, "update bank_account set balance = balance + ?, version = version + 1 " +
+                "where account_number = ?", amount, accountNumber);
+    }
+
+    @Override
+    public int subtractFromBalance(String accountNumber, BigDecimal amount, BigDecimal minBalance) {
+        return update(accountNumber, "update bank_account set balance = balance - ?, version = version + 1 " +
+                "where account_number = ? and balance - ? >= ?", amount, accountNumber, amount, minBalance);
+    }
+
+    private int update(String accountNumber, String sql, Object... parameters) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        if (!session.isTransactionInProgress()) {
+            throw new TransactionRequiredException("Balance updates must run in a transaction");
+        }
+        lockCachedAccount(session, accountNumber);
+        // through the JDBC coordinator, so the statement is logged and counted like every other one
+        JdbcCoordinator jdbc = session.getJdbcCoordinator();
+        PreparedStatement statement = jdbc.getStatementPreparer().prepareStatement(sql);
+        try {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            return jdbc.getResultSetReturn().executeUpdate(statement, sql);
+        } catch (SQLException e) {
+            throw jdbc.getJdbcSessionOwner().getSqlExceptionHelper().convert(e, "Could not update the balance", sql);
+        } finally {
+            jdbc.getLogicalConnection().getResourceRegistry().release(statement);
+            jdbc.afterStatementExecution();
+        }
+    }
+
+    // Readers miss the entry while it is locked, and loads that started before the unlock cannot put the old row back.
+    private static void lockCachedAccount(SessionImplementor session, String accountNumber) {
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(BankAccount.class);
+        if (!persister.canWriteToCache()) {
+            return;
+        }
+        EntityDataAccess cache = persister.getCacheAccessStrategy();
+        Object key = cache.generateCacheKey(accountNumber, persister, session.getFactory(), session.getTenantIdentifier());
+        SoftLock lock = cache.lockItem(session, key, null);
+        session.getActionQueue().registerProcess((success, completed) -> cache.unlockItem(completed, key, lock));
+    }
+
+}
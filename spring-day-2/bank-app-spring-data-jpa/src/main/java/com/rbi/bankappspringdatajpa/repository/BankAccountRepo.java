@@ -1,18 +1,96 @@
 package com.rbi.bankappspringdatajpa.repository;
 
+import com.rbi.bankappspringdatajpa.dto.AccountResponseDto;
 import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.money.Money;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface BankAccountRepo extends JpaRepository<BankAccount, String> {
+public interface BankAccountRepo extends JpaRepository<BankAccount, String>, BankAccountBalanceUpdates {
 
  //   @Query("from BankAccount where accountNumber = :accountNumber")
  //   @Query(nativeQuery = true, value = "select * from bank_account where account_number = :accountNumber")
 
-    Optional<BankAccount> findByAccountNumber(String accountNumber);
-    
+    // Lookups below are answered from the query cache until an account is added or removed, single accounts are loaded
+    // with findById, which reads the second-level cache. Balance updates leave cached queries alone, so no cached query
+    // may select the balance.
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    boolean existsByAccountNumber(String accountNumber);
+
+    // keyset page: seeks past the last account number already returned instead of skipping an offset
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<BankAccount> findByAccountNumberGreaterThanOrderByAccountNumber(String accountNumber, Limit limit);
+
+    // The API reads below select response records instead of entities, so nothing is added to the persistence context
+    // or dirty-checked at commit.
+
+    @Query("select new com.rbi.bankappspringdatajpa.dto.AccountResponseDto(a.accountNumber, a.accountHolderName, " +
+            "a.balance, a.accountType) from BankAccount a where a.accountNumber > :accountNumber order by a.accountNumber")
+    List<AccountResponseDto> findResponsesAfter(String accountNumber, Limit limit);
+
+    // rows are fetched from the database in chunks while the stream is consumed, it must be closed in a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.rbi.bankappspringdatajpa.dto.AccountResponseDto(a.accountNumber, a.accountHolderName, " +
+            "a.balance, a.accountType) from BankAccount a order by a.accountNumber")
+    Stream<AccountResponseDto> streamAllResponses();
+
+    // Always reads the row. findById in the transaction of a balance update would still return the account as the
+    // persistence context loaded it before the update.
+    @QueryHints({
+            @QueryHint(name = SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, value = "BYPASS"),
+            @QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS")
+    })
+    @Query("from BankAccount where accountNumber = :accountNumber")
+    Optional<BankAccount> findCurrentByAccountNumber(String accountNumber);
+
+    // the given account numbers that are taken, one query per import batch instead of existsById per row
+    @Query("select a.accountNumber from BankAccount a where a.accountNumber in :accountNumbers")
+    Set<String> findExistingAccountNumbers(Collection<String> accountNumbers);
+
+    // select ... for update, the row stays locked until the surrounding transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "5000"))
+    @Query("from BankAccount where accountNumber = :accountNumber")
+    Optional<BankAccount> findByAccountNumberForUpdate(String accountNumber);
+
+    // single statement read-modify-write, the version is bumped so optimistic readers still see the change
+    default int credit(String accountNumber, long amount) {
+        return addToBalance(accountNumber, Money.toDecimal(amount));
+    }
+
+    // returns 0 when the account does not exist or the debit would take the balance below minBalance
+    default int debit(String accountNumber, long amount, long minBalance) {
+        return subtractFromBalance(accountNumber, Money.toDecimal(amount), Money.toDecimal(minBalance));
+    }
+
+    // ledger mode: snapshot plus pending postings, in one statement so a concurrent compaction is seen entirely or not at all
+    @Query(nativeQuery = true, value = "select b.balance + coalesce((select sum(case when t.transaction_type = 'CREDIT' " +
+            "then t.amount else -t.amount end) from account_transaction t " +
+            "where t.pending = true and t.account_account_number = b.account_number), 0) " +
+            "from bank_account b where b.account_number = :accountNumber")
+    Optional<BigDecimal> findLedgerBalance(String accountNumber);
+
+    // striped accounts: the account row plus its stripes, in one statement like the ledger balance
+    @Query(nativeQuery = true, value = "select b.balance + coalesce((select sum(s.balance) from balance_stripe s " +
+            "where s.account_number = b.account_number), 0) " +
+            "from bank_account b where b.account_number = :accountNumber")
+    Optional<BigDecimal> findStripedBalance(String accountNumber);
+
 }
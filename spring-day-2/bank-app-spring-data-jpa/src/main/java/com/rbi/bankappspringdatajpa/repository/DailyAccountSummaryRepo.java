@@ -0,0 +1,71 @@
+package com.rbi.bankappspringdatajpa.repository;
+
+import com.rbi.bankappspringdatajpa.dto.DailySummaryDto;
+import com.rbi.bankappspringdatajpa.model.DailyAccountSummary;
+import com.rbi.bankappspringdatajpa.money.Money;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyAccountSummaryRepo extends JpaRepository<DailyAccountSummary, DailyAccountSummary.Key> {
+
+    // a primary key range scan, one row per day with activity however many transactions the days had
+    @Query("select new com.rbi.bankappspringdatajpa.dto.DailySummaryDto(" +
+            "s.summaryDate, s.creditTotal, s.creditCount, s.debitTotal, s.debitCount) " +
+            "from DailyAccountSummary s " +
+            "where s.accountNumber = :accountNumber and s.summaryDate between :from and :to " +
+            "order by s.summaryDate")
+    List<DailySummaryDto> findSummaries(String accountNumber, LocalDate from, LocalDate to);
+
+    boolean existsByAccountNumberAndSummaryDate(String accountNumber, LocalDate summaryDate);
+
+    // returns 0 when the row does not exist yet
+    default int add(String accountNumber, LocalDate summaryDate, long credits, long creditCount, long debits, long debitCount) {
+        return addToSummary(accountNumber, summaryDate, Money.toDecimal(credits), creditCount, Money.toDecimal(debits), debitCount);
+    }
+
+    // native so the amounts are bound as DECIMAL, like BankAccountBalanceUpdatesImpl
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_account_summary"))
+    @Query(nativeQuery = true, value = "update daily_account_summary set credit_total = credit_total + :credits, " +
+            "credit_count = credit_count + :creditCount, debit_total = debit_total + :debits, " +
+            "debit_count = debit_count + :debitCount " +
+            "where account_number = :accountNumber and summary_date = :summaryDate")
+    int addToSummary(String accountNumber, LocalDate summaryDate, BigDecimal credits, long creditCount,
+                     BigDecimal debits, long debitCount);
+
+    // insert if absent, rendered for the dialect (on duplicate key update on MySQL, merge on H2): a row inserted
+    // concurrently is no error, so this runs in the caller's transaction instead of taking a second connection
+    @Modifying
+    @Query("insert into DailyAccountSummary (accountNumber, summaryDate, creditTotal, creditCount, debitTotal, " +
+            "debitCount) values (:accountNumber, :summaryDate, 0, 0, 0, 0) on conflict do nothing")
+    int insertEmpty(String accountNumber, LocalDate summaryDate);
+
+    // backfill: recomputed from the transactions, ledger postings still pending are added by the compactor later
+    @Modifying
+    @Query("delete from DailyAccountSummary s " +
+            "where s.accountNumber = :accountNumber and s.summaryDate between :from and :to")
+    int deleteSummaries(String accountNumber, LocalDate from, LocalDate to);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_account_summary"))
+    @Query(nativeQuery = true, value = "insert into daily_account_summary (account_number, summary_date, " +
+            "credit_total, credit_count, debit_total, debit_count) " +
+            "select t.account_account_number, t.date, " +
+            "sum(case when t.transaction_type = 'CREDIT' then t.amount else 0 end), " +
+            "sum(case when t.transaction_type = 'CREDIT' then 1 else 0 end), " +
+            "sum(case when t.transaction_type = 'DEBIT' then t.amount else 0 end), " +
+            "sum(case when t.transaction_type = 'DEBIT' then 1 else 0 end) " +
+            "from account_transaction t " +
+            "where t.account_account_number = :accountNumber and t.date between :from and :to and t.pending = false " +
+            "group by t.account_account_number, t.date")
+    int insertSummariesFromTransactions(String accountNumber, LocalDate from, LocalDate to);
+
+}
@@ -0,0 +1,58 @@
+package com.rbi.bankappspringdatajpa.repository;
+
+import com.rbi.bankappspringdatajpa.model.DailySummaryStripe;
+import com.rbi.bankappspringdatajpa.money.Money;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailySummaryStripeRepo extends JpaRepository<DailySummaryStripe, DailySummaryStripe.Key> {
+
+    // the credits on the stripes of the days, the debits are on the daily_account_summary rows; at most a row per day
+    // and stripe, added up by the caller
+    List<DailySummaryStripe> findByAccountNumberAndSummaryDateBetween(String accountNumber, LocalDate from, LocalDate to);
+
+    boolean existsByAccountNumberAndSummaryDateAndStripe(String accountNumber, LocalDate summaryDate, int stripe);
+
+    // returns 0 when the row does not exist yet
+    default int add(String accountNumber, LocalDate summaryDate, int stripe, long credits, long creditCount) {
+        return addToStripe(accountNumber, summaryDate, stripe, Money.toDecimal(credits), creditCount);
+    }
+
+    // native so the amounts are bound as DECIMAL, like BankAccountBalanceUpdatesImpl
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_summary_stripe"))
+    @Query(nativeQuery = true, value = "update daily_summary_stripe set credit_total = credit_total + :credits, " +
+            "credit_count = credit_count + :creditCount " +
+            "where account_number = :accountNumber and summary_date = :summaryDate and stripe = :stripe")
+    int addToStripe(String accountNumber, LocalDate summaryDate, int stripe, BigDecimal credits, long creditCount);
+
+    // insert if absent, like DailyAccountSummaryRepo.insertEmpty
+    @Modifying
+    @Query("insert into DailySummaryStripe (accountNumber, summaryDate, stripe, creditTotal, creditCount) " +
+            "values (:accountNumber, :summaryDate, :stripe, 0, 0) on conflict do nothing")
+    int insertEmpty(String accountNumber, LocalDate summaryDate, int stripe);
+
+    @Query("select distinct s.accountNumber from DailySummaryStripe s")
+    List<String> findAccountNumbers();
+
+    List<DailySummaryStripe> findByAccountNumber(String accountNumber);
+
+    @Modifying
+    @Query("delete from DailySummaryStripe s where s.accountNumber = :accountNumber")
+    int deleteByAccountNumber(String accountNumber);
+
+    // backfill: the rebuilt daily_account_summary rows hold the credits again
+    @Modifying
+    @Query("delete from DailySummaryStripe s " +
+            "where s.accountNumber = :accountNumber and s.summaryDate between :from and :to")
+    int deleteSummaries(String accountNumber, LocalDate from, LocalDate to);
+
+}
@@ -0,0 +1,25 @@
+package com.rbi.bankappspringdatajpa.repository;
+
+import com.rbi.bankappspringdatajpa.model.IdempotencyRecord;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface IdempotencyRecordRepo extends JpaRepository<IdempotencyRecord, String> {
+
+    @Query("select r.idempotencyKey from IdempotencyRecord r where r.expiresAt <= :now")
+    List<String> findExpiredKeys(Instant now, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.idempotencyKey in :keys and r.expiresAt <= :now")
+    int deleteExpired(List<String> keys, Instant now);
+
+}
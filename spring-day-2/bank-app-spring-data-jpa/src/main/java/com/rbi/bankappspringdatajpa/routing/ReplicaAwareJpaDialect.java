@@ -0,0 +1,77 @@
+package com.rbi.bankappspringdatajpa.routing;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import java.sql.SQLException;
+
+/**
+ * Keeps what is read from the replica out of the second-level cache. A read-only transaction that gets a replica
+ * connection may still read cached entries but does not put entities or query results. Otherwise a stale row from a
+ * lagging replica would be cached and then returned to primary reads as well, including the read-your-writes ones.
+ * Where a transaction reads from is only known once {@link ReplicaRoutingDataSource} hands out its connection, so
+ * read-only transactions that end up on the primary, such as read-your-writes reads, still fill the cache.
+ */
+public class ReplicaAwareJpaDialect extends HibernateJpaDialect {
+
+    // set on the entity manager rather than as a Hibernate CacheMode, find() derives its cache mode from it
+    private static final String STORE_MODE = "jakarta.persistence.cache.storeMode";
+
+    private static final ThreadLocal<ReadOnlyTransaction> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly()) {
+            return transactionData;
+        }
+        ReadOnlyTransaction transaction = new ReadOnlyTransaction(transactionData, entityManager, CURRENT.get());
+        CURRENT.set(transaction);
+        return transaction;
+    }
+
+    // called before the first statement of a read-only transaction runs on the replica
+    static void replicaConnectionAcquired() {
+        ReadOnlyTransaction transaction = CURRENT.get();
+        if (transaction != null && transaction.previousStoreMode == null) {
+            transaction.previousStoreMode =
+                    transaction.entityManager.getProperties().getOrDefault(STORE_MODE, CacheStoreMode.USE);
+            transaction.entityManager.setProperty(STORE_MODE, CacheStoreMode.BYPASS);
+        }
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReadOnlyTransaction transaction) {
+            // the entity manager outlives the transaction when it is bound to the request
+            if (transaction.previousStoreMode != null && transaction.entityManager.isOpen()) {
+                transaction.entityManager.setProperty(STORE_MODE, transaction.previousStoreMode);
+            }
+            CURRENT.set(transaction.outer);
+            super.cleanupTransaction(transaction.delegate);
+            return;
+        }
+        super.cleanupTransaction(transactionData);
+    }
+
+    private static final class ReadOnlyTransaction {
+        private final Object delegate;
+        private final EntityManager entityManager;
+        // a read-only transaction suspended by this one
+        private final ReadOnlyTransaction outer;
+        // set once the transaction reads from the replica
+        private Object previousStoreMode;
+
+        private ReadOnlyTransaction(Object delegate, EntityManager entityManager, ReadOnlyTransaction outer) {
+            this.delegate = delegate;
+            this.entityManager = entityManager;
+            this.outer = outer;
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.rbi.bankappspringdatajpa.routing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes on top of replica routing. Accounts written through this instance are remembered for
+ * {@code account.replica.read_your_writes_window} after the write commits, and reads of those accounts run on the
+ * primary, so a replica that is behind cannot return the state from before the write. Reads that are not about one
+ * account, such as the account pages and streams, always use the replica. Does nothing while routing is off.
+ */
+@Component
+public class ReplicaLagGuard {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+    // set when the current read() got a replica connection, kept until the next one starts
+    private static final ThreadLocal<Boolean> READ_FROM_REPLICA = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final Cache<String, Boolean> recentWrites;
+
+    public ReplicaLagGuard(@Value("${account.replica.enabled:false}") boolean enabled,
+                           @Value("${account.replica.read_your_writes_window:PT5S}") Duration readYourWritesWindow,
+                           @Value("${account.replica.max_tracked_accounts:100000}") int maxTrackedAccounts) {
+        this.enabled = enabled;
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(maxTrackedAccounts)
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+    }
+
+    // true while onPrimary is running on this thread, read-only transactions then stay on the primary as well
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    // the window starts when the surrounding transaction commits, a rollback leaves nothing to read back
+    public void recordWrite(String... accountNumbers) {
+        if (!enabled) {
+            return;
+        }
+        List<String> written = List.of(accountNumbers);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            written.forEach(accountNumber -> recentWrites.put(accountNumber, Boolean.TRUE));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                written.forEach(accountNumber -> recentWrites.put(accountNumber, Boolean.TRUE));
+            }
+        });
+    }
+
+    public boolean isRecentlyWritten(String accountNumber) {
+        return enabled && recentWrites.getIfPresent(accountNumber) != null;
+    }
+
+    // runs the read on the primary when the account was written within the window, otherwise where it is routed
+    public <T> T read(String accountNumber, Supplier<T> read) {
+        READ_FROM_REPLICA.remove();
+        return isRecentlyWritten(accountNumber) ? onPrimary(read) : read.get();
+    }
+
+    // Whether the last read() on this thread was answered by the replica. Its result must not be cached: a stale read
+    // cached around a write would be returned instead of the primary for as long as the cache keeps it.
+    public boolean isReadFromReplica() {
+        return READ_FROM_REPLICA.get() != null;
+    }
+
+    static void replicaConnectionAcquired() {
+        READ_FROM_REPLICA.set(Boolean.TRUE);
+    }
+
+    // for reads that decide about a write, such as duplicate checks, and must never see a lagging replica
+    public <T> T onPrimary(Supplier<T> read) {
+        if (!enabled || isPrimaryRequired()) {
+            return read.get();
+        }
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+}
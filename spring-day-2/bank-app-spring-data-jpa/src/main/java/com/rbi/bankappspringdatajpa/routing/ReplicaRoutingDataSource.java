@@ -0,0 +1,39 @@
+package com.rbi.bankappspringdatajpa.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Hands out replica connections inside read-only transactions and primary connections everywhere else. The flag is
+ * only known once the transaction has started, so this must sit behind a LazyConnectionDataSourceProxy that delays
+ * the choice until the first statement. That is also when the read-only transaction learns it reads from the replica,
+ * and what it reads stops going into the caches.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ReplicaLagGuard.isPrimaryRequired()) {
+            ReplicaAwareJpaDialect.replicaConnectionAcquired();
+            ReplicaLagGuard.replicaConnectionAcquired();
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+
+}
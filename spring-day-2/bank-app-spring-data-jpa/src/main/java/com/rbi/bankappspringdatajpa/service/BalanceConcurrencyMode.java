@@ -0,0 +1,28 @@
+package com.rbi.bankappspringdatajpa.service;
+
+/**
+ * How concurrent balance mutations on the same account are kept consistent.
+ * Selected per deployment through the {@code account.concurrency_mode} property.
+ */
+public enum BalanceConcurrencyMode {
+
+    /**
+     * Change the balance with a single conditional {@code UPDATE}, the database applies it to the
+     * current row value so there is nothing to lock or retry.
+     */
+    ATOMIC,
+
+    /** Read without locking, detect conflicts through the {@code @Version} column and retry. */
+    OPTIMISTIC,
+
+    /** Lock the account row with {@code SELECT ... FOR UPDATE} before changing the balance. */
+    PESSIMISTIC,
+
+    /**
+     * Append postings without touching the account row. The balance is the last snapshot in
+     * {@code bank_account.balance} plus the pending postings, which {@link LedgerCompactor} folds into
+     * the snapshot in the background. Only debits lock the account row, to check the minimum balance.
+     */
+    LEDGER
+
+}
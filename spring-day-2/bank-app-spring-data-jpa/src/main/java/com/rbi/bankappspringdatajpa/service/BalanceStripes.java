@@ -0,0 +1,118 @@
+package com.rbi.bankappspringdatajpa.service;
+
+import com.rbi.bankappspringdatajpa.model.BalanceStripe;
+import com.rbi.bankappspringdatajpa.repository.BalanceStripeRepo;
+import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Striped balances for the accounts in {@code account.striping.accounts}, the few settlement and merchant accounts that
+ * take most of the deposits. A deposit into one of them updates one of its {@code account.striping.stripes} rows in
+ * {@code balance_stripe}, picked at random, instead of the single {@code bank_account} row every other deposit waits
+ * for. The balance is the account row plus its stripes. Debits are taken from the account row, and fold the stripes
+ * into it first when the row alone does not cover them, so the minimum balance is checked against the whole balance.
+ */
+@Component
+public class BalanceStripes {
+
+    private final BankAccountRepo accountRepo;
+    private final BalanceStripeRepo stripeRepo;
+    private final TransactionTemplate transaction;
+    private final Set<String> accounts;
+    private final int stripes;
+
+    public BalanceStripes(BankAccountRepo accountRepo, BalanceStripeRepo stripeRepo,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${account.striping.accounts:}") Set<String> accounts,
+                          @Value("${account.striping.stripes:8}") int stripes,
+                          @Value("${account.concurrency_mode:atomic}") BalanceConcurrencyMode concurrencyMode) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("account.striping.stripes must be at least 1");
+        }
+        // ledger credits do not touch the account row in the first place, and its postings would be counted twice
+        if (!accounts.isEmpty() && concurrencyMode == BalanceConcurrencyMode.LEDGER) {
+            throw new IllegalArgumentException("account.striping.accounts cannot be used with concurrency_mode ledger");
+        }
+        this.accountRepo = accountRepo;
+        this.stripeRepo = stripeRepo;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.accounts = Set.copyOf(accounts);
+        this.stripes = stripes;
+    }
+
+    public boolean isStriped(String accountNumber) {
+        return accounts.contains(accountNumber);
+    }
+
+    // a random stripe of a striped account, deposits and their daily summary credits are spread the same way
+    int randomStripe() {
+        return ThreadLocalRandom.current().nextInt(stripes);
+    }
+
+    // Creates the stripes of the configured accounts, and moves the stripes of accounts that are no longer configured
+    // back to their account rows, where their balance is read from again.
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileStripes() {
+        for (String accountNumber : accounts) {
+            // checked in the transaction that creates the stripes, which runs on the primary, not the replica
+            transaction.executeWithoutResult(status -> {
+                if (accountRepo.existsById(accountNumber)) {
+                    createStripes(accountNumber);
+                }
+            });
+        }
+        for (String accountNumber : stripeRepo.findAccountNumbers()) {
+            if (!isStriped(accountNumber)) {
+                transaction.executeWithoutResult(status -> {
+                    fold(accountNumber);
+                    deleteStripes(accountNumber);
+                });
+            }
+        }
+    }
+
+    // Inserts the missing stripes, in the caller's transaction when there is one. Stripes inserted by another instance
+    // meanwhile are left as they are, like the first daily summary row of a day.
+    public void createStripes(String accountNumber) {
+        transaction.executeWithoutResult(status -> {
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                if (!stripeRepo.existsByAccountNumberAndStripe(accountNumber, stripe)) {
+                    stripeRepo.insertEmpty(accountNumber, stripe);
+                }
+            }
+        });
+    }
+
+    // false when the stripe does not exist: the account does not, or was created by an instance that does not stripe
+    // it. The caller then credits the account row.
+    public boolean credit(String accountNumber, long amount) {
+        return stripeRepo.credit(accountNumber, randomStripe(), amount) == 1;
+    }
+
+    // Moves everything on the stripes of the account to its row and returns the amount moved. The stripes stay locked,
+    // and deposits into the account wait, until the surrounding transaction ends.
+    public long fold(String accountNumber) {
+        long total = 0;
+        for (BalanceStripe stripe : stripeRepo.findByAccountNumberForUpdate(accountNumber)) {
+            total = Math.addExact(total, stripe.getBalance());
+            stripe.setBalance(0);
+        }
+        if (total > 0) {
+            accountRepo.credit(accountNumber, total);
+        }
+        return total;
+    }
+
+    public void deleteStripes(String accountNumber) {
+        stripeRepo.deleteByAccountNumber(accountNumber);
+    }
+
+}
@@ -1,23 +1,48 @@
 package com.rbi.bankappspringdatajpa.service;
 
+import com.rbi.bankappspringdatajpa.dto.AccountPageDto;
+import com.rbi.bankappspringdatajpa.dto.AccountResponseDto;
+import com.rbi.bankappspringdatajpa.dto.AccountSummaryDto;
 import com.rbi.bankappspringdatajpa.dto.AccountTransactionRequestDto;
 import com.rbi.bankappspringdatajpa.dto.AccountTransactionResponseDto;
+import com.rbi.bankappspringdatajpa.dto.BatchTransactionResponseDto;
+import com.rbi.bankappspringdatajpa.dto.TransactionPageDto;
+import com.rbi.bankappspringdatajpa.dto.TransferRequestDto;
+import com.rbi.bankappspringdatajpa.dto.TransferResponseDto;
 import com.rbi.bankappspringdatajpa.model.BankAccount;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BankAccountService {
 
     BankAccount createAccount(BankAccount account);
 
-    BankAccount getAccountDetails(String accountNumber);
+    AccountResponseDto getAccountDetails(String accountNumber);
 
-    List<BankAccount> getAllAccount();
+    AccountPageDto getAccounts(String cursor, int size);
+
+    void streamAllAccounts(Consumer<AccountResponseDto> consumer);
 
     void removeAccount(String accountNumber);
 
     AccountTransactionResponseDto deposit(AccountTransactionRequestDto transactionRequestDto);
 
-    BankAccount withdraw(String accountNumber, double amount);
+    AccountTransactionResponseDto deposit(AccountTransactionRequestDto transactionRequestDto, String idempotencyKey);
+
+    BankAccount withdraw(String accountNumber, long amount);
+
+    BankAccount withdraw(String accountNumber, long amount, String idempotencyKey);
+
+    TransferResponseDto transfer(TransferRequestDto transferRequestDto);
+
+    TransferResponseDto transfer(TransferRequestDto transferRequestDto, String idempotencyKey);
+
+    BatchTransactionResponseDto applyTransactionBatch(List<AccountTransactionRequestDto> transactionRequests);
+
+    TransactionPageDto getTransactions(String accountNumber, LocalDate from, LocalDate to, String cursor, int size);
+
+    AccountSummaryDto getDailySummary(String accountNumber, LocalDate from, LocalDate to);
 
 }
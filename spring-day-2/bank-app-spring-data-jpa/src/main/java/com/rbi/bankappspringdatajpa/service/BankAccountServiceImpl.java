@@ -1,89 +1,216 @@
 package com.rbi.bankappspringdatajpa.service;
 
+import com.rbi.bankappspringdatajpa.config.CacheConfig;
+import com.rbi.bankappspringdatajpa.dto.AccountPageDto;
+import com.rbi.bankappspringdatajpa.dto.AccountResponseDto;
+import com.rbi.bankappspringdatajpa.dto.AccountSummaryDto;
 import com.rbi.bankappspringdatajpa.dto.AccountTransactionRequestDto;
 import com.rbi.bankappspringdatajpa.dto.AccountTransactionResponseDto;
+import com.rbi.bankappspringdatajpa.dto.BatchTransactionResponseDto;
+import com.rbi.bankappspringdatajpa.dto.DailySummaryDto;
+import com.rbi.bankappspringdatajpa.dto.TransactionPageDto;
+import com.rbi.bankappspringdatajpa.dto.TransferRequestDto;
+import com.rbi.bankappspringdatajpa.dto.TransferResponseDto;
+import com.rbi.bankappspringdatajpa.exception.BusinessException;
 import com.rbi.bankappspringdatajpa.exception.DuplicateRecordException;
+import com.rbi.bankappspringdatajpa.exception.InsufficientBalanceException;
+import com.rbi.bankappspringdatajpa.exception.InvalidRequestException;
 import com.rbi.bankappspringdatajpa.exception.RecordNotFoundException;
 import com.rbi.bankappspringdatajpa.model.AccountTransaction;
 import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.model.DailySummaryStripe;
+import com.rbi.bankappspringdatajpa.model.IdempotencyRecord;
 import com.rbi.bankappspringdatajpa.model.TransactionType;
+import com.rbi.bankappspringdatajpa.money.Money;
+import com.rbi.bankappspringdatajpa.outbox.TransactionOutbox;
 import com.rbi.bankappspringdatajpa.repository.AccountTransactionRepo;
 import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
-import jakarta.transaction.Transactional;
+import com.rbi.bankappspringdatajpa.repository.DailyAccountSummaryRepo;
+import com.rbi.bankappspringdatajpa.repository.DailySummaryStripeRepo;
+import com.rbi.bankappspringdatajpa.routing.ReplicaLagGuard;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 public class BankAccountServiceImpl implements BankAccountService{
 
     private BankAccountRepo accountRepo;
     private AccountTransactionRepo transactionRepo;
+    private TransactionTemplate transactionTemplate;
+    private TransactionIdGenerator transactionIdGenerator;
+    private EntityManager entityManager;
+    private IdempotencyStore idempotencyStore;
+    private TransactionOutbox transactionOutbox;
+    private DailySummaryUpdater dailySummaryUpdater;
+    private DailyAccountSummaryRepo summaryRepo;
+    private DailySummaryStripeRepo summaryStripeRepo;
+    private ReplicaLagGuard replicaLagGuard;
+    private BalanceStripes balanceStripes;
 
-    @Value("${account.min_balance}")
-    private double minBalance;
+    // minor units, like every amount below
+    private long minBalance;
+
+    @Value("${account.concurrency_mode:atomic}")
+    private BalanceConcurrencyMode concurrencyMode = BalanceConcurrencyMode.ATOMIC;
+
+    @Value("${account.optimistic_retry.max_attempts:5}")
+    private int maxOptimisticAttempts = 5;
+
+    @Value("${account.page.max_size:1000}")
+    private int maxPageSize = 1000;
+
+    @Value("${account.batch.max_size:10000}")
+    private int maxBatchSize = 10000;
+
+    @Value("${account.batch.jdbc_batch_size:500}")
+    private int batchJdbcBatchSize = 500;
+
+    @Value("${account.summary.max_days:366}")
+    private int maxSummaryDays = 366;
 
-    public BankAccountServiceImpl(BankAccountRepo accountRepo, AccountTransactionRepo transactionRepo) {
+    public BankAccountServiceImpl(BankAccountRepo accountRepo, AccountTransactionRepo transactionRepo,
+                                  PlatformTransactionManager transactionManager, TransactionIdGenerator transactionIdGenerator,
+                                  EntityManager entityManager, IdempotencyStore idempotencyStore,
+                                  TransactionOutbox transactionOutbox, DailySummaryUpdater dailySummaryUpdater,
+                                  DailyAccountSummaryRepo summaryRepo, DailySummaryStripeRepo summaryStripeRepo,
+                                  ReplicaLagGuard replicaLagGuard, BalanceStripes balanceStripes) {
         this.accountRepo = accountRepo;
         this.transactionRepo = transactionRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.entityManager = entityManager;
+        this.idempotencyStore = idempotencyStore;
+        this.transactionOutbox = transactionOutbox;
+        this.dailySummaryUpdater = dailySummaryUpdater;
+        this.summaryRepo = summaryRepo;
+        this.summaryStripeRepo = summaryStripeRepo;
+        this.replicaLagGuard = replicaLagGuard;
+        this.balanceStripes = balanceStripes;
+    }
+
+    @Value("${account.min_balance}")
+    void setMinBalance(BigDecimal minBalance) {
+        this.minBalance = Money.toMinorUnits(minBalance);
     }
 
     public BankAccount createAccount(BankAccount account) {
-        if (accountRepo.existsById(account.getAccountNumber())){
+        if (replicaLagGuard.onPrimary(() -> accountRepo.existsById(account.getAccountNumber()))){
             throw new DuplicateRecordException("Account with Account Number ["+account.getAccountNumber()+"] Already Exists");
         }
-        return accountRepo.save(account);
+        BankAccount created = accountRepo.save(account);
+        if (isStriped(created.getAccountNumber())) {
+            balanceStripes.createStripes(created.getAccountNumber());
+        }
+        replicaLagGuard.recordWrite(created.getAccountNumber());
+        return created;
     }
 
+    // The account cache holds the immutable response, not the entity. It is read through findById rather than a
+    // projection, so that a miss in the account cache is still served from the second-level cache. Like the
+    // second-level cache, it does not keep what was read from a replica.
     @Override
-    public BankAccount getAccountDetails(String accountNumber) {
-        return accountRepo.findByAccountNumber(accountNumber).orElseThrow(()->new RecordNotFoundException("Account with Account Number ["+accountNumber+"] Not Found"));
+    @Cacheable(cacheNames = CacheConfig.ACCOUNTS_CACHE, key = "#accountNumber",
+            unless = "@replicaLagGuard.isReadFromReplica()")
+    @Transactional(readOnly = true)
+    public AccountResponseDto getAccountDetails(String accountNumber) {
+        return replicaLagGuard.read(accountNumber, () -> {
+            AccountResponseDto account = AccountResponseDto.of(findAccount(accountNumber));
+            if (concurrencyMode == BalanceConcurrencyMode.LEDGER) {
+                return account.withBalance(ledgerBalance(accountNumber));
+            }
+            if (isStriped(accountNumber)) {
+                return account.withBalance(stripedBalance(accountNumber));
+            }
+            return account;
+        });
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public AccountPageDto getAccounts(String cursor, int size) {
+        int pageSize = Math.clamp(size, 1, maxPageSize);
+        List<AccountResponseDto> accounts = accountRepo.findResponsesAfter(cursor == null ? "" : cursor, Limit.of(pageSize));
+        String nextCursor = accounts.size() == pageSize ? accounts.get(accounts.size() - 1).accountNumber() : null;
+        return new AccountPageDto(accounts, nextCursor);
+    }
 
-    public List<BankAccount> getAllAccount() {
-        return accountRepo.findAll();
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllAccounts(Consumer<AccountResponseDto> consumer) {
+        // records, not entities, so the persistence context stays empty however large the table is
+        try (Stream<AccountResponseDto> accounts = accountRepo.streamAllResponses()) {
+            accounts.forEach(consumer);
+        }
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS_CACHE, key = "#accountNumber")
     public void removeAccount(String accountNumber) {
-        BankAccount account = getAccountDetails(accountNumber);
-        if (account!=null){
-            accountRepo.delete(account);
-        }
+        // looked up in the delete's transaction, on the primary: a lagging replica could miss a new account, or return
+        // a version the delete then fails on. Stripes are deleted whether or not the account is striped now, a new
+        // account must not inherit them.
+        transactionTemplate.executeWithoutResult(status -> {
+            accountRepo.delete(findAccount(accountNumber));
+            balanceStripes.deleteStripes(accountNumber);
+        });
+        replicaLagGuard.recordWrite(accountNumber);
     }
 
 
-    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS_CACHE, key = "#transactionRequestDto.accountNumber()")
     public AccountTransactionResponseDto deposit(AccountTransactionRequestDto transactionRequestDto) {
-        BankAccount account = getAccountDetails(transactionRequestDto.accountNumber());
-        if (account==null){
-            throw new RuntimeException("Invalid Account Details");
-        }
-        double updatedBalance = account.getBalance()+transactionRequestDto.amount();
-        account.setBalance(updatedBalance);
-        account = accountRepo.save(account);
-        AccountTransaction transaction = createTransaction(account, transactionRequestDto.amount(), TransactionType.CREDIT);
-        transaction = transactionRepo.save(transaction);
-    //    account.getTransactions().add(transaction);
-        return getTransactionResponseDto(transaction);
+        return deposit(transactionRequestDto, null);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS_CACHE, key = "#transactionRequestDto.accountNumber()")
+    public AccountTransactionResponseDto deposit(AccountTransactionRequestDto transactionRequestDto, String idempotencyKey) {
+        requirePositive(transactionRequestDto.amount());
+        return executeIdempotent(idempotencyKey, "deposit " + transactionRequestDto, AccountTransactionResponseDto.class, () -> {
+            BankAccount account = credit(transactionRequestDto.accountNumber(), transactionRequestDto.amount());
+            AccountTransaction transaction = createTransaction(account, transactionRequestDto.amount(), TransactionType.CREDIT);
+            saveTransactions(List.of(transaction));
+            replicaLagGuard.recordWrite(transactionRequestDto.accountNumber());
+        //    account.getTransactions().add(transaction);
+            return getTransactionResponseDto(transaction);
+        });
 
     }
 
-    private AccountTransaction createTransaction(BankAccount account, double amount, TransactionType type){
-        Random rand = new Random(10000000);
-        long transactionId = Math.abs(rand.nextLong());
+    private AccountTransaction createTransaction(BankAccount account, long amount, TransactionType type){
+        long transactionId = transactionIdGenerator.nextId();
         AccountTransaction transaction = new AccountTransaction(transactionId,
                 LocalDate.now(), LocalTime.now(),
                 amount,
                 type,
                 account);
+        transaction.setPending(concurrencyMode == BalanceConcurrencyMode.LEDGER);
         return transaction;
     }
 
@@ -99,19 +226,392 @@ public class BankAccountServiceImpl implements BankAccountService{
         return dto;
     }
 
-    public BankAccount withdraw(String accountNumber, double amount) {
-        BankAccount account = getAccountDetails(accountNumber);
-        if (account==null){
-            throw new RuntimeException("Invalid Account Details");
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS_CACHE, key = "#accountNumber")
+    public BankAccount withdraw(String accountNumber, long amount) {
+        return withdraw(accountNumber, amount, null);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS_CACHE, key = "#accountNumber")
+    public BankAccount withdraw(String accountNumber, long amount, String idempotencyKey) {
+        // a negative withdrawal would otherwise pass the balance check and credit the account
+        requirePositive(amount);
+        String request = "withdraw " + accountNumber + " " + amount;
+        return executeIdempotent(idempotencyKey, request, BankAccount.class, () -> {
+            BankAccount account = debit(accountNumber, amount);
+            saveTransactions(List.of(createTransaction(accountRepo.getReferenceById(accountNumber), amount, TransactionType.DEBIT)));
+            replicaLagGuard.recordWrite(accountNumber);
+            return account;
+        });
+    }
+
+    // Both balances change in one transaction. The rows are locked in account number order whatever the direction,
+    // so two transfers between the same accounts in opposite directions wait for each other instead of deadlocking.
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ACCOUNTS_CACHE, key = "#transferRequestDto.fromAccountNumber()"),
+            @CacheEvict(cacheNames = CacheConfig.ACCOUNTS_CACHE, key = "#transferRequestDto.toAccountNumber()")})
+    public TransferResponseDto transfer(TransferRequestDto transferRequestDto) {
+        return transfer(transferRequestDto, null);
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ACCOUNTS_CACHE, key = "#transferRequestDto.fromAccountNumber()"),
+            @CacheEvict(cacheNames = CacheConfig.ACCOUNTS_CACHE, key = "#transferRequestDto.toAccountNumber()")})
+    public TransferResponseDto transfer(TransferRequestDto transferRequestDto, String idempotencyKey) {
+        String from = transferRequestDto.fromAccountNumber();
+        String to = transferRequestDto.toAccountNumber();
+        long amount = transferRequestDto.amount();
+        if (from == null || to == null || from.equals(to) || amount <= 0) {
+            throw new InvalidRequestException("A transfer needs two different accounts and a positive amount");
+        }
+        return executeIdempotent(idempotencyKey, "transfer " + transferRequestDto, TransferResponseDto.class, () -> {
+            BankAccount fromAccount;
+            BankAccount toAccount;
+            if (from.compareTo(to) < 0) {
+                fromAccount = debit(from, amount);
+                toAccount = credit(to, amount);
+            } else {
+                toAccount = credit(to, amount);
+                fromAccount = debit(from, amount);
+            }
+            // ledger and striped debits return a copy of the debited account, the posting needs the managed one
+            AccountTransaction debit = createTransaction(accountRepo.getReferenceById(from), amount, TransactionType.DEBIT);
+            AccountTransaction credit = createTransaction(toAccount, amount, TransactionType.CREDIT);
+            saveTransactions(List.of(debit, credit));
+            replicaLagGuard.recordWrite(from, to);
+            return new TransferResponseDto(getTransactionResponseDto(debit), getTransactionResponseDto(credit));
+        });
+    }
+
+    // Positive amounts are credits, negative amounts debits. The whole batch commits or fails together.
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNTS_CACHE, allEntries = true)
+    public BatchTransactionResponseDto applyTransactionBatch(List<AccountTransactionRequestDto> transactionRequests) {
+        if (transactionRequests == null || transactionRequests.isEmpty() || transactionRequests.size() > maxBatchSize) {
+            throw new InvalidRequestException("A batch must contain between 1 and " + maxBatchSize + " transactions");
+        }
+        // net change per account, in account number order so concurrent batches lock rows in the same order
+        Map<String, Long> netChanges = new TreeMap<>();
+        long totalCredits = 0;
+        long totalDebits = 0;
+        for (AccountTransactionRequestDto request : transactionRequests) {
+            if (request.accountNumber() == null || request.amount() == 0) {
+                throw new InvalidRequestException("Every transaction needs an account number and a non zero amount");
+            }
+            netChanges.merge(request.accountNumber(), request.amount(), Math::addExact);
+            if (request.amount() > 0) {
+                totalCredits = Math.addExact(totalCredits, request.amount());
+            } else {
+                totalDebits = Math.subtractExact(totalDebits, request.amount());
+            }
         }
-        if(amount>account.getBalance()) {
-            throw new RuntimeException("Insufficient account balance");
+
+        // one balance update per account instead of one per transaction
+        for (Map.Entry<String, Long> change : netChanges.entrySet()) {
+            long amount = change.getValue();
+            if (concurrencyMode == BalanceConcurrencyMode.LEDGER || isStriped(change.getKey())) {
+                if (amount >= 0) {
+                    credit(change.getKey(), amount);
+                } else {
+                    debit(change.getKey(), -amount);
+                }
+                continue;
+            }
+            int updated = amount >= 0
+                    ? accountRepo.credit(change.getKey(), amount)
+                    : accountRepo.debit(change.getKey(), -amount, minBalance);
+            if (updated == 0) {
+                if (!accountRepo.existsByAccountNumber(change.getKey())) {
+                    throw accountNotFound(change.getKey());
+                }
+                throw new InsufficientBalanceException("Insufficient account balance");
+            }
         }
-        double updatedBalance = account.getBalance() - amount;
-        account.setBalance(updatedBalance);
+
+        // inserts go out as JDBC batches, the persistence context is cleared per batch to keep memory flat
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchJdbcBatchSize);
+        List<AccountTransaction> pending = new ArrayList<>(batchJdbcBatchSize);
+        for (AccountTransactionRequestDto request : transactionRequests) {
+            long amount = Math.abs(request.amount());
+            TransactionType type = request.amount() > 0 ? TransactionType.CREDIT : TransactionType.DEBIT;
+            pending.add(createTransaction(accountRepo.getReferenceById(request.accountNumber()), amount, type));
+            if (pending.size() == batchJdbcBatchSize) {
+                flushTransactions(pending);
+            }
+        }
+        flushTransactions(pending);
+        replicaLagGuard.recordWrite(netChanges.keySet().toArray(String[]::new));
+        return new BatchTransactionResponseDto(transactionRequests.size(), netChanges.size(), totalCredits, totalDebits);
+    }
+
+    // every saved transaction gets its outbox event and is added to the daily summary in the same database
+    // transaction, ledger postings are summarized when they are compacted instead of on the hot account row
+    private void saveTransactions(List<AccountTransaction> transactions) {
+        transactionRepo.saveAll(transactions);
+        transactionOutbox.append(transactions);
+        if (concurrencyMode != BalanceConcurrencyMode.LEDGER) {
+            dailySummaryUpdater.apply(transactions);
+        }
+    }
+
+    private void flushTransactions(List<AccountTransaction> pending) {
+        saveTransactions(pending);
+        entityManager.flush();
+        entityManager.clear();
+        pending.clear();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionPageDto getTransactions(String accountNumber, LocalDate from, LocalDate to, String cursor, int size) {
+        return replicaLagGuard.read(accountNumber, () -> findTransactions(accountNumber, from, to, cursor, size));
+    }
+
+    private TransactionPageDto findTransactions(String accountNumber, LocalDate from, LocalDate to, String cursor, int size) {
+        LocalDate until = to == null ? LocalDate.now() : to;
+        LocalDate since = from == null ? LocalDate.EPOCH : from;
+        Limit limit = Limit.of(Math.clamp(size, 1, maxPageSize));
+        List<AccountTransactionResponseDto> transactions;
+        if (cursor == null) {
+            transactions = transactionRepo.findStatement(accountNumber, since, until, limit);
+        } else {
+            TransactionCursor after = TransactionCursor.decode(cursor);
+            transactions = transactionRepo.findStatementAfter(accountNumber, since, until,
+                    after.date(), after.time(), after.transactionId(), limit);
+        }
+        // an empty page is the only case where a missing account has to be told apart from an empty range
+        if (transactions.isEmpty() && !accountRepo.existsByAccountNumber(accountNumber)) {
+            throw accountNotFound(accountNumber);
+        }
+        String nextCursor = transactions.size() == limit.max()
+                ? TransactionCursor.of(transactions.get(transactions.size() - 1)).encode()
+                : null;
+        return new TransactionPageDto(transactions, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AccountSummaryDto getDailySummary(String accountNumber, LocalDate from, LocalDate to) {
+        return replicaLagGuard.read(accountNumber, () -> findDailySummary(accountNumber, from, to));
+    }
+
+    private AccountSummaryDto findDailySummary(String accountNumber, LocalDate from, LocalDate to) {
+        LocalDate until = to == null ? LocalDate.now() : to;
+        LocalDate since = from == null ? until.minusDays(29) : from;
+        if (since.isAfter(until) || since.plusDays(maxSummaryDays - 1).isBefore(until)) {
+            throw new InvalidRequestException("A summary covers 1 to " + maxSummaryDays + " days");
+        }
+        List<DailySummaryDto> days = summaryRepo.findSummaries(accountNumber, since, until);
+        if (isStriped(accountNumber)) {
+            days = withStripedCredits(days,
+                    summaryStripeRepo.findByAccountNumberAndSummaryDateBetween(accountNumber, since, until));
+        }
+        if (days.isEmpty() && !accountRepo.existsByAccountNumber(accountNumber)) {
+            throw accountNotFound(accountNumber);
+        }
+        long credits = 0;
+        long debits = 0;
+        for (DailySummaryDto day : days) {
+            credits = Math.addExact(credits, day.credits());
+            debits = Math.addExact(debits, day.debits());
+        }
+        return new AccountSummaryDto(accountNumber, since, until, credits, debits, days);
+    }
+
+    // a striped account has the credits of a day on its summary stripes, and its day row only when it had debits
+    private static List<DailySummaryDto> withStripedCredits(List<DailySummaryDto> days, List<DailySummaryStripe> stripes) {
+        if (stripes.isEmpty()) {
+            return days;
+        }
+        Map<LocalDate, DailySummaryDto> merged = new TreeMap<>();
+        for (DailySummaryDto day : days) {
+            merged.put(day.date(), day);
+        }
+        for (DailySummaryStripe stripe : stripes) {
+            merged.merge(stripe.getSummaryDate(),
+                    new DailySummaryDto(stripe.getSummaryDate(), stripe.getCreditTotal(), stripe.getCreditCount(), 0, 0),
+                    (day, credits) -> new DailySummaryDto(day.date(), Math.addExact(day.credits(), credits.credits()),
+                            day.creditCount() + credits.creditCount(), day.debits(), day.debitCount()));
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    private BankAccount credit(String accountNumber, long amount) {
+        if (isStriped(accountNumber) && balanceStripes.credit(accountNumber, amount)) {
+            // like a ledger credit nothing on the account row is read or locked, existing stripes mean the account exists
+            return accountRepo.getReferenceById(accountNumber);
+        }
+        if (concurrencyMode == BalanceConcurrencyMode.LEDGER) {
+            // the posting is the credit, nothing on the account row is read or locked
+            if (!accountRepo.existsByAccountNumber(accountNumber)) {
+                throw accountNotFound(accountNumber);
+            }
+            return accountRepo.getReferenceById(accountNumber);
+        }
+        if (concurrencyMode == BalanceConcurrencyMode.ATOMIC) {
+            if (accountRepo.credit(accountNumber, amount) == 0) {
+                throw accountNotFound(accountNumber);
+            }
+            // only the key is needed to link the transaction, so no select is issued here
+            return accountRepo.getReferenceById(accountNumber);
+        }
+        BankAccount account = getAccountForUpdate(accountNumber);
+        account.setBalance(Math.addExact(account.getBalance(), amount));
         return accountRepo.save(account);
     }
 
+    private BankAccount debit(String accountNumber, long amount) {
+        if (isStriped(accountNumber)) {
+            return stripedDebit(accountNumber, amount);
+        }
+        if (concurrencyMode == BalanceConcurrencyMode.ATOMIC) {
+            if (accountRepo.debit(accountNumber, amount, minBalance) == 0) {
+                if (!accountRepo.existsByAccountNumber(accountNumber)) {
+                    throw accountNotFound(accountNumber);
+                }
+                throw new InsufficientBalanceException("Insufficient account balance");
+            }
+            return accountRepo.findCurrentByAccountNumber(accountNumber).orElseThrow(()->accountNotFound(accountNumber));
+        }
+        BankAccount account = getAccountForUpdate(accountNumber);
+        if (concurrencyMode == BalanceConcurrencyMode.LEDGER) {
+            // the row lock orders debits on this account, credits keep appending meanwhile and only add to the balance
+            long balance = ledgerBalance(accountNumber);
+            if (balance - amount < minBalance) {
+                throw new InsufficientBalanceException("Insufficient account balance");
+            }
+            return detachedView(account, balance - amount);
+        }
+        if (account.getBalance() - amount < minBalance) {
+            throw new InsufficientBalanceException("Insufficient account balance");
+        }
+        account.setBalance(account.getBalance() - amount);
+        return accountRepo.save(account);
+    }
+
+    // Taken from the account row with a conditional update whatever the concurrency mode. Only when the row alone does not
+    // cover it are the stripes folded into the row, the stripes never go below zero so that is the whole balance.
+    private BankAccount stripedDebit(String accountNumber, long amount) {
+        if (accountRepo.debit(accountNumber, amount, minBalance) == 0) {
+            if (!accountRepo.existsByAccountNumber(accountNumber)) {
+                throw accountNotFound(accountNumber);
+            }
+            balanceStripes.fold(accountNumber);
+            if (accountRepo.debit(accountNumber, amount, minBalance) == 0) {
+                throw new InsufficientBalanceException("Insufficient account balance");
+            }
+        }
+        BankAccount account = accountRepo.findCurrentByAccountNumber(accountNumber).orElseThrow(()->accountNotFound(accountNumber));
+        return detachedView(account, stripedBalance(accountNumber));
+    }
+
+    private BankAccount getAccountForUpdate(String accountNumber) {
+        return switch (concurrencyMode) {
+            case OPTIMISTIC, ATOMIC -> findAccount(accountNumber);
+            case PESSIMISTIC, LEDGER -> accountRepo.findByAccountNumberForUpdate(accountNumber)
+                    .orElseThrow(()->accountNotFound(accountNumber));
+        };
+    }
+
+    private BankAccount findAccount(String accountNumber) {
+        return accountRepo.findById(accountNumber).orElseThrow(()->accountNotFound(accountNumber));
+    }
+
+    private long ledgerBalance(String accountNumber) {
+        return accountRepo.findLedgerBalance(accountNumber).map(Money::toMinorUnits)
+                .orElseThrow(()->accountNotFound(accountNumber));
+    }
+
+    private boolean isStriped(String accountNumber) {
+        return concurrencyMode != BalanceConcurrencyMode.LEDGER && balanceStripes.isStriped(accountNumber);
+    }
+
+    private long stripedBalance(String accountNumber) {
+        return accountRepo.findStripedBalance(accountNumber).map(Money::toMinorUnits)
+                .orElseThrow(()->accountNotFound(accountNumber));
+    }
+
+    // a detached copy, a ledger or striped balance must never be flushed into the balance column
+    private static BankAccount detachedView(BankAccount account, long balance) {
+        return new BankAccount(account.getAccountNumber(), account.getAccountHolderName(), balance,
+                account.getAccountType(), null, account.getVersion());
+    }
+
+    private static void requirePositive(long amount) {
+        if (amount <= 0) {
+            throw new InvalidRequestException("Amount must be positive");
+        }
+    }
+
+    private RecordNotFoundException accountNotFound(String accountNumber) {
+        return new RecordNotFoundException("Account with Account Number ["+accountNumber+"] Not Found");
+    }
+
+    // Without a key this is executeWithRetry. With a key, a repeat returns the stored response without touching any
+    // balance, and the response of a new key is recorded in the transaction that applies it.
+    private <T> T executeIdempotent(String idempotencyKey, String request, Class<T> responseType, Supplier<T> work) {
+        if (idempotencyKey == null) {
+            return executeWithRetry(work);
+        }
+        Optional<T> replay = idempotencyStore.find(idempotencyKey, request, responseType);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+        IdempotencyRecord[] record = new IdempotencyRecord[1];
+        try {
+            T response = executeWithRetry(() -> {
+                T result = work.get();
+                record[0] = idempotencyStore.record(idempotencyKey, request, result);
+                return result;
+            });
+            idempotencyStore.remember(record[0]);
+            return response;
+        } catch (DataIntegrityViolationException ex) {
+            // the key is in the table already, from a concurrent request that committed first or one this instance has
+            // not seen. This one was rolled back, and gets the response of the first.
+            Optional<T> recorded = idempotencyStore.findRecorded(idempotencyKey, request, responseType);
+            if (recorded.isPresent()) {
+                return recorded.get();
+            }
+            if (!idempotencyStore.deleteExpired(idempotencyKey)) {
+                throw ex;
+            }
+            // the key had expired but was not purged yet, now it is free for this request
+            return executeIdempotent(idempotencyKey, request, responseType, work);
+        } catch (BusinessException ex) {
+            // a repeat can fail where the first succeeded, e.g. a withdrawal the balance no longer covers
+            return idempotencyStore.findRecorded(idempotencyKey, request, responseType).orElseThrow(() -> ex);
+        }
+    }
+
+    // Runs the balance mutation in its own transaction. A version conflict only shows up when the
+    // transaction commits, so the whole unit of work is retried rather than just the failing statement.
+    private <T> T executeWithRetry(Supplier<T> work) {
+        int attempts = concurrencyMode == BalanceConcurrencyMode.OPTIMISTIC ? maxOptimisticAttempts : 1;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt >= attempts) {
+                    throw ex;
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 2L + attempt * 2L));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying balance update", e);
+        }
+    }
+
 
 
 }
@@ -0,0 +1,91 @@
+package com.rbi.bankappspringdatajpa.service;
+
+import com.rbi.bankappspringdatajpa.exception.InvalidRequestException;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import com.rbi.bankappspringdatajpa.repository.DailyAccountSummaryRepo;
+import com.rbi.bankappspringdatajpa.repository.DailySummaryStripeRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Recomputes {@code daily_account_summary} from {@code account_transaction}, for backfills and repairs. Started with
+ * {@code --rebuild-daily-summary --from=2024-01-01 --to=2024-12-31}, both dates inclusive and {@code to} defaulting
+ * to yesterday. The application then starts without the web server and exits once the rebuild is done. Each account
+ * is rebuilt in its own transaction. Only closed days can be rebuilt: transactions of today are still being added to
+ * the summary rows. The credits of striped accounts on rebuilt days move from {@code daily_summary_stripe} to their
+ * day rows.
+ */
+@Component
+public class DailySummaryRebuilder implements ApplicationRunner {
+
+    public static final String REBUILD_OPTION = "rebuild-daily-summary";
+
+    private static final Logger log = LoggerFactory.getLogger(DailySummaryRebuilder.class);
+    private static final int ACCOUNT_PAGE_SIZE = 500;
+
+    private final BankAccountRepo accountRepo;
+    private final DailyAccountSummaryRepo summaryRepo;
+    private final DailySummaryStripeRepo stripeRepo;
+    private final TransactionTemplate transactionTemplate;
+
+    public DailySummaryRebuilder(BankAccountRepo accountRepo, DailyAccountSummaryRepo summaryRepo,
+                                 DailySummaryStripeRepo stripeRepo, PlatformTransactionManager transactionManager) {
+        this.accountRepo = accountRepo;
+        this.summaryRepo = summaryRepo;
+        this.stripeRepo = stripeRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(REBUILD_OPTION)) {
+            return;
+        }
+        LocalDate from = LocalDate.parse(singleValue(args, "from"));
+        String to = args.containsOption("to") ? singleValue(args, "to") : null;
+        int rows = rebuild(from, to == null ? LocalDate.now().minusDays(1) : LocalDate.parse(to));
+        log.info("Rebuilt {} daily account summaries", rows);
+    }
+
+    // returns the number of summary rows written
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (from.isAfter(to) || !to.isBefore(LocalDate.now())) {
+            throw new InvalidRequestException("Daily summaries can be rebuilt from a day up to yesterday, not ["
+                    + from + ", " + to + "]");
+        }
+        int rows = 0;
+        String after = "";
+        List<BankAccount> accounts;
+        do {
+            accounts = accountRepo.findByAccountNumberGreaterThanOrderByAccountNumber(after, Limit.of(ACCOUNT_PAGE_SIZE));
+            for (BankAccount account : accounts) {
+                rows += transactionTemplate.execute(status -> {
+                    summaryRepo.deleteSummaries(account.getAccountNumber(), from, to);
+                    stripeRepo.deleteSummaries(account.getAccountNumber(), from, to);
+                    return summaryRepo.insertSummariesFromTransactions(account.getAccountNumber(), from, to);
+                });
+                after = account.getAccountNumber();
+            }
+        } while (accounts.size() == ACCOUNT_PAGE_SIZE);
+        return rows;
+    }
+
+    private static String singleValue(ApplicationArguments args, String option) {
+        List<String> values = args.getOptionValues(option);
+        if (values == null || values.size() != 1) {
+            throw new IllegalArgumentException("--" + REBUILD_OPTION + " needs exactly one --" + option + "=yyyy-MM-dd");
+        }
+        return values.get(0);
+    }
+
+}
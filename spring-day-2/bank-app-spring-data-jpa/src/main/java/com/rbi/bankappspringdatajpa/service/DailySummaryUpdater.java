@@ -0,0 +1,122 @@
+package com.rbi.bankappspringdatajpa.service;
+
+import com.rbi.bankappspringdatajpa.model.AccountTransaction;
+import com.rbi.bankappspringdatajpa.model.DailyAccountSummary;
+import com.rbi.bankappspringdatajpa.model.DailySummaryStripe;
+import com.rbi.bankappspringdatajpa.model.TransactionType;
+import com.rbi.bankappspringdatajpa.repository.DailyAccountSummaryRepo;
+import com.rbi.bankappspringdatajpa.repository.DailySummaryStripeRepo;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains {@code daily_account_summary}. {@link #apply} must run in the transaction that saves the transactions,
+ * so a day's totals always match its committed transactions. The credits of a striped account go to
+ * {@code daily_summary_stripe} instead, otherwise its day row would be the one row all its deposits wait for.
+ */
+@Component
+public class DailySummaryUpdater {
+
+    private static final Comparator<DailyAccountSummary.Key> KEY_ORDER =
+            Comparator.comparing(DailyAccountSummary.Key::getAccountNumber)
+                    .thenComparing(DailyAccountSummary.Key::getSummaryDate);
+
+    private final DailyAccountSummaryRepo summaryRepo;
+    private final DailySummaryStripeRepo stripeRepo;
+    private final BalanceStripes balanceStripes;
+    private final TransactionTemplate transaction;
+
+    public DailySummaryUpdater(DailyAccountSummaryRepo summaryRepo, DailySummaryStripeRepo stripeRepo,
+                               BalanceStripes balanceStripes, PlatformTransactionManager transactionManager) {
+        this.summaryRepo = summaryRepo;
+        this.stripeRepo = stripeRepo;
+        this.balanceStripes = balanceStripes;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    public void apply(List<AccountTransaction> transactions) {
+        // one update per account and day, in key order so concurrent writers lock summary rows in the same order
+        Map<DailyAccountSummary.Key, DailyAccountSummary> changes = new TreeMap<>(KEY_ORDER);
+        for (AccountTransaction transaction : transactions) {
+            String accountNumber = transaction.getAccount().getAccountNumber();
+            DailyAccountSummary change = changes.computeIfAbsent(
+                    new DailyAccountSummary.Key(accountNumber, transaction.getDate()),
+                    key -> new DailyAccountSummary(key.getAccountNumber(), key.getSummaryDate(), 0, 0, 0, 0));
+            if (transaction.getTransactionType() == TransactionType.CREDIT) {
+                change.setCreditTotal(Math.addExact(change.getCreditTotal(), transaction.getAmount()));
+                change.setCreditCount(change.getCreditCount() + 1);
+            } else {
+                change.setDebitTotal(Math.addExact(change.getDebitTotal(), transaction.getAmount()));
+                change.setDebitCount(change.getDebitCount() + 1);
+            }
+        }
+        for (DailyAccountSummary change : changes.values()) {
+            if (change.getCreditCount() > 0 && balanceStripes.isStriped(change.getAccountNumber())) {
+                addToStripe(change.getAccountNumber(), change.getSummaryDate(), change.getCreditTotal(),
+                        change.getCreditCount());
+                change.setCreditTotal(0);
+                change.setCreditCount(0);
+            }
+            if (change.getCreditCount() > 0 || change.getDebitCount() > 0) {
+                addToDay(change.getAccountNumber(), change.getSummaryDate(), change.getCreditTotal(),
+                        change.getCreditCount(), change.getDebitTotal(), change.getDebitCount());
+            }
+        }
+    }
+
+    // accounts that are no longer striped have their credits read from the day rows again, so they are moved there
+    @EventListener(ApplicationReadyEvent.class)
+    public void foldUnconfiguredStripes() {
+        for (String accountNumber : stripeRepo.findAccountNumbers()) {
+            if (balanceStripes.isStriped(accountNumber)) {
+                continue;
+            }
+            Map<LocalDate, DailyAccountSummary> days = new TreeMap<>();
+            for (DailySummaryStripe stripe : stripeRepo.findByAccountNumber(accountNumber)) {
+                DailyAccountSummary day = days.computeIfAbsent(stripe.getSummaryDate(),
+                        date -> new DailyAccountSummary(accountNumber, date, 0, 0, 0, 0));
+                day.setCreditTotal(Math.addExact(day.getCreditTotal(), stripe.getCreditTotal()));
+                day.setCreditCount(day.getCreditCount() + stripe.getCreditCount());
+            }
+            transaction.executeWithoutResult(status -> {
+                for (DailyAccountSummary day : days.values()) {
+                    addToDay(accountNumber, day.getSummaryDate(), day.getCreditTotal(), day.getCreditCount(), 0, 0);
+                }
+                stripeRepo.deleteByAccountNumber(accountNumber);
+            });
+        }
+    }
+
+    private void addToDay(String accountNumber, LocalDate summaryDate, long credits, long creditCount, long debits,
+                          long debitCount) {
+        createIfMissing(accountNumber, summaryDate);
+        summaryRepo.add(accountNumber, summaryDate, credits, creditCount, debits, debitCount);
+    }
+
+    private void addToStripe(String accountNumber, LocalDate summaryDate, long credits, long creditCount) {
+        int stripe = balanceStripes.randomStripe();
+        if (!stripeRepo.existsByAccountNumberAndSummaryDateAndStripe(accountNumber, summaryDate, stripe)) {
+            stripeRepo.insertEmpty(accountNumber, summaryDate, stripe);
+        }
+        stripeRepo.add(accountNumber, summaryDate, stripe, credits, creditCount);
+    }
+
+    // The first transaction of a day inserts an empty row, unless a concurrent one just did, and every later one only
+    // updates it. The check is a plain read: an update that matched nothing would hold a gap lock on MySQL that the
+    // insert would wait for.
+    private void createIfMissing(String accountNumber, LocalDate summaryDate) {
+        if (!summaryRepo.existsByAccountNumberAndSummaryDate(accountNumber, summaryDate)) {
+            summaryRepo.insertEmpty(accountNumber, summaryDate);
+        }
+    }
+
+}
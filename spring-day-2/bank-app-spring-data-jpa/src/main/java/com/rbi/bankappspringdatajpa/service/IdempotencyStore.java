@@ -0,0 +1,175 @@
+package com.rbi.bankappspringdatajpa.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.rbi.bankappspringdatajpa.exception.IdempotencyKeyReuseException;
+import com.rbi.bankappspringdatajpa.exception.InvalidRequestException;
+import com.rbi.bankappspringdatajpa.model.IdempotencyRecord;
+import com.rbi.bankappspringdatajpa.repository.IdempotencyRecordRepo;
+import com.rbi.bankappspringdatajpa.routing.ReplicaLagGuard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Responses of requests made with an Idempotency-Key. The table is the source of truth: the record is inserted in
+ * the same transaction as the balance change, so a key is either applied and recorded or neither. Keys seen by this
+ * instance are also kept in a bounded in-memory cache, until the record expires, so that a client retry is answered
+ * without a query. Other keys are not looked up before the request runs: a new key costs nothing extra, and a key
+ * that is already in the table fails the insert on its primary key, which rolls the request back. Only then is the
+ * record read, on the primary, and its response returned.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+    private static final int MAX_KEY_LENGTH = 64;
+
+    private final IdempotencyRecordRepo recordRepo;
+    private final ReplicaLagGuard replicaLagGuard;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final int purgeBatchSize;
+    private final Cache<String, IdempotencyRecord> recentRecords;
+
+    public IdempotencyStore(IdempotencyRecordRepo recordRepo, ReplicaLagGuard replicaLagGuard, ObjectMapper objectMapper,
+                            @Value("${account.idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${account.idempotency.cache_size:10000}") int cacheSize,
+                            @Value("${account.idempotency.purge_batch_size:1000}") int purgeBatchSize) {
+        this.recordRepo = recordRepo;
+        this.replicaLagGuard = replicaLagGuard;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.purgeBatchSize = purgeBatchSize;
+        this.recentRecords = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<String, IdempotencyRecord>() {
+                    // records loaded from the table have less than the ttl left
+                    @Override
+                    public long expireAfterCreate(String key, IdempotencyRecord record, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), record.getExpiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, IdempotencyRecord record, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, record, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, IdempotencyRecord record, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    // the response stored for the key when this instance has seen it, without a query
+    public <T> Optional<T> find(String key, String request, Class<T> responseType) {
+        validate(key);
+        IdempotencyRecord record = recentRecords.getIfPresent(key);
+        return record == null ? Optional.empty() : response(record, key, request, responseType);
+    }
+
+    // The response stored for the key in the table, after its insert failed. Empty when the failure was not the key,
+    // or the key had expired and was not purged yet: see deleteExpired.
+    public <T> Optional<T> findRecorded(String key, String request, Class<T> responseType) {
+        // a replica that has not seen the first request yet would miss the record
+        IdempotencyRecord record = replicaLagGuard.onPrimary(() -> recordRepo.findById(key)).orElse(null);
+        if (record == null || !record.getExpiresAt().isAfter(Instant.now())) {
+            return Optional.empty();
+        }
+        recentRecords.put(key, record);
+        return response(record, key, request, responseType);
+    }
+
+    // true when an expired record held the key, which is free again now
+    public boolean deleteExpired(String key) {
+        return recordRepo.deleteExpired(List.of(key), Instant.now()) > 0;
+    }
+
+    private <T> Optional<T> response(IdempotencyRecord record, String key, String request, Class<T> responseType) {
+        if (!matches(record, request)) {
+            throw new IdempotencyKeyReuseException("Idempotency-Key [" + key + "] was already used for a different request");
+        }
+        try {
+            return Optional.of(objectMapper.readValue(record.getResponse(), responseType));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response for Idempotency-Key [" + key + "] cannot be read", e);
+        }
+    }
+
+    // must run in the transaction that applies the request, fails on the primary key when the key was used meanwhile
+    public IdempotencyRecord record(String key, String request, Object response) {
+        try {
+            IdempotencyRecord record = new IdempotencyRecord(key, fingerprint(request),
+                    objectMapper.writeValueAsString(response), Instant.now().plus(ttl));
+            return recordRepo.saveAndFlush(record);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response for Idempotency-Key [" + key + "] cannot be stored", e);
+        }
+    }
+
+    // only after the transaction has committed, a rolled back request must not be replayed
+    public void remember(IdempotencyRecord record) {
+        recentRecords.put(record.getIdempotencyKey(), record);
+    }
+
+    // deletes in short transactions of purge_batch_size rows so the table is never locked for long
+    @Scheduled(initialDelayString = "${account.idempotency.purge_interval:PT10M}",
+            fixedDelayString = "${account.idempotency.purge_interval:PT10M}")
+    public int purgeExpired() {
+        Instant now = Instant.now();
+        int purged = 0;
+        List<String> expired;
+        do {
+            expired = recordRepo.findExpiredKeys(now, Limit.of(purgeBatchSize));
+            if (!expired.isEmpty()) {
+                // a key used again since it was selected has a new record that must stay
+                purged += recordRepo.deleteExpired(expired, now);
+            }
+        } while (expired.size() == purgeBatchSize);
+        if (purged > 0) {
+            log.info("purged {} expired idempotency keys", purged);
+        }
+        return purged;
+    }
+
+    // records written before requests were fingerprinted hold the request itself, until they expire
+    private static boolean matches(IdempotencyRecord record, String request) {
+        return record.getRequest().equals(fingerprint(request)) || record.getRequest().equals(request);
+    }
+
+    // The request is stored as its SHA-256, 64 hex characters however long the client made the account numbers in it.
+    static String fingerprint(String request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(request.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void validate(String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidRequestException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.rbi.bankappspringdatajpa.service;
+
+import com.rbi.bankappspringdatajpa.model.AccountTransaction;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.model.TransactionType;
+import com.rbi.bankappspringdatajpa.repository.AccountTransactionRepo;
+import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Folds pending ledger postings into {@code bank_account.balance}. Each account is compacted in its own short
+ * transaction that holds the account row lock, so it only ever waits for debits on that account, never for credits.
+ * The computed balance does not change, which is why the account cache is left alone.
+ */
+@Component
+public class LedgerCompactor {
+
+    private final BankAccountRepo accountRepo;
+    private final AccountTransactionRepo transactionRepo;
+    private final DailySummaryUpdater dailySummaryUpdater;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public LedgerCompactor(BankAccountRepo accountRepo, AccountTransactionRepo transactionRepo,
+                           DailySummaryUpdater dailySummaryUpdater, PlatformTransactionManager transactionManager,
+                           @Value("${account.ledger.compaction_batch_size:1000}") int batchSize) {
+        this.accountRepo = accountRepo;
+        this.transactionRepo = transactionRepo;
+        this.dailySummaryUpdater = dailySummaryUpdater;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    // returns the number of postings folded into snapshots, at most compaction_batch_size per account and run
+    @Scheduled(initialDelayString = "${account.ledger.compaction_interval:PT5S}",
+            fixedDelayString = "${account.ledger.compaction_interval:PT5S}")
+    public int compact() {
+        int compacted = 0;
+        for (String accountNumber : transactionRepo.findAccountsWithPendingPostings(Limit.of(batchSize))) {
+            compacted += transactionTemplate.execute(status -> compact(accountNumber));
+        }
+        return compacted;
+    }
+
+    private int compact(String accountNumber) {
+        BankAccount account = accountRepo.findByAccountNumberForUpdate(accountNumber).orElse(null);
+        if (account == null) {
+            return 0;
+        }
+        // postings committed after this select stay pending for the next run
+        List<AccountTransaction> postings =
+                transactionRepo.findByAccountAccountNumberAndPendingTrue(accountNumber, Limit.of(batchSize));
+        long change = 0;
+        for (AccountTransaction posting : postings) {
+            long amount = posting.getTransactionType() == TransactionType.CREDIT ? posting.getAmount() : -posting.getAmount();
+            change = Math.addExact(change, amount);
+            posting.setPending(false);
+        }
+        account.setBalance(Math.addExact(account.getBalance(), change));
+        // postings reach the daily summary once, when they stop being pending
+        dailySummaryUpdater.apply(postings);
+        return postings.size();
+    }
+
+}
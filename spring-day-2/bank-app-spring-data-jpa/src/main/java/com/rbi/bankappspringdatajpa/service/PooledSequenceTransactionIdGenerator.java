@@ -0,0 +1,106 @@
+package com.rbi.bankappspringdatajpa.service;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Database backed ids handed out in blocks of {@code allocationSize}, like Hibernate's pooled optimizer.
+ * The sequence is a single row table so it works on MySQL, which has no sequences, as well as on H2. The row has a
+ * fixed primary key, so instances starting at the same time cannot create it twice.
+ * Only one id in every {@code allocationSize} costs a database round trip, the rest come from memory.
+ * <p>
+ * Blocks are reserved on a data source of the generator's own, not the application's pool: the callers already hold a
+ * pooled connection, and with the pool exhausted a refill waiting for another one would wait for itself. Refills are
+ * serialized, so one connection is enough.
+ */
+public class PooledSequenceTransactionIdGenerator implements TransactionIdGenerator {
+
+    static final String TABLE_NAME = "transaction_id_sequence";
+    private static final int SEQUENCE_ID = 1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate allocationTransaction;
+    private final int allocationSize;
+
+    private volatile Block block = new Block(0, 0);
+
+    public PooledSequenceTransactionIdGenerator(DataSource dataSource, int allocationSize) {
+        if (allocationSize < 1) {
+            throw new IllegalArgumentException("Allocation size must be positive but was " + allocationSize);
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.allocationSize = allocationSize;
+        // never part of the caller's transaction, a rollback there must not hand ids out twice
+        this.allocationTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        createSequenceIfMissing();
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            Block current = block;
+            long id = current.next.getAndIncrement();
+            if (id < current.limit) {
+                return id;
+            }
+            refill(current);
+        }
+    }
+
+    private synchronized void refill(Block exhausted) {
+        if (block != exhausted) {
+            // another thread already reserved a new block
+            return;
+        }
+        long limit = allocationTransaction.execute(status -> {
+            jdbcTemplate.update("update " + TABLE_NAME + " set next_val = next_val + ? where id = ?", allocationSize,
+                    SEQUENCE_ID);
+            return jdbcTemplate.queryForObject("select next_val from " + TABLE_NAME + " where id = ?", Long.class,
+                    SEQUENCE_ID);
+        });
+        block = new Block(limit - allocationSize, limit);
+    }
+
+    private void createSequenceIfMissing() {
+        jdbcTemplate.execute("create table if not exists " + TABLE_NAME
+                + " (id int not null, next_val bigint not null, primary key (id))");
+        addIdToOldTable();
+        Long rows = jdbcTemplate.queryForObject("select count(*) from " + TABLE_NAME + " where id = ?", Long.class,
+                SEQUENCE_ID);
+        if (rows == null || rows == 0) {
+            try {
+                jdbcTemplate.update("insert into " + TABLE_NAME + " (id, next_val) values (?, 1)", SEQUENCE_ID);
+            } catch (DuplicateKeyException e) {
+                // inserted by an instance starting at the same time
+            }
+        }
+    }
+
+    // tables created before the id column have their one row, which becomes the row with the primary key
+    private void addIdToOldTable() {
+        try {
+            jdbcTemplate.queryForList("select id from " + TABLE_NAME + " where 1 = 0");
+        } catch (BadSqlGrammarException e) {
+            jdbcTemplate.execute("alter table " + TABLE_NAME + " add column id int default " + SEQUENCE_ID + " not null");
+            jdbcTemplate.execute("alter table " + TABLE_NAME + " add primary key (id)");
+        }
+    }
+
+    // ids in [next, limit) are reserved for this instance
+    private static final class Block {
+        private final AtomicLong next;
+        private final long limit;
+
+        private Block(long first, long limit) {
+            this.next = new AtomicLong(first);
+            this.limit = limit;
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.rbi.bankappspringdatajpa.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake style ids: 41 bits of milliseconds since {@link #EPOCH_MILLIS}, 10 bits of node id and a
+ * 12 bit per-millisecond sequence. Ids are unique per node without any coordination and roughly
+ * time ordered, which keeps inserts at the end of the primary key index.
+ */
+public class SnowflakeTransactionIdGenerator implements TransactionIdGenerator {
+
+    // 2025-01-01T00:00:00Z
+    static final long EPOCH_MILLIS = 1735689600000L;
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+
+    // last issued (timestamp << SEQUENCE_BITS | sequence)
+    private final AtomicLong lastState = new AtomicLong();
+
+    public SnowflakeTransactionIdGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + " but was " + nodeId);
+        }
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        // Either start the sequence for a new millisecond or take the next one after the last issued id.
+        // An exhausted sequence overflows into the timestamp bits, i.e. borrows the next millisecond, and
+        // a clock that moves backwards simply keeps counting from the last issued value.
+        long state = lastState.updateAndGet(last -> Math.max(now, last + 1));
+        long timestamp = state >>> SEQUENCE_BITS;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (state & SEQUENCE_MASK);
+    }
+
+}
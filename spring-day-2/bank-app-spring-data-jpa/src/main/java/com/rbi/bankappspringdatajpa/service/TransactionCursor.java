@@ -0,0 +1,39 @@
+package com.rbi.bankappspringdatajpa.service;
+
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionResponseDto;
+import com.rbi.bankappspringdatajpa.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a statement, the (date, time, transactionId) of the last transaction returned.
+ * Handed to clients as an opaque url safe token.
+ */
+record TransactionCursor(LocalDate date, LocalTime time, long transactionId) {
+
+    static TransactionCursor of(AccountTransactionResponseDto transaction) {
+        return new TransactionCursor(transaction.date(), transaction.time(), transaction.transactionId());
+    }
+
+    static TransactionCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(",");
+            if (parts.length != 3) {
+                throw new InvalidRequestException("Invalid cursor [" + token + "]");
+            }
+            return new TransactionCursor(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidRequestException("Invalid cursor [" + token + "]");
+        }
+    }
+
+    String encode() {
+        String value = date + "," + time + "," + transactionId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.rbi.bankappspringdatajpa.service;
+
+/**
+ * Hands out {@code AccountTransaction} ids. Implementations must be thread safe and never return
+ * the same id twice, also across application instances sharing a database.
+ */
+public interface TransactionIdGenerator {
+
+    long nextId();
+
+}
@@ -3,6 +3,10 @@ package com.rbi.bankappspringdatajpa;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 @SpringBootTest
 class BankAppSpringDataJpaApplicationTests {
 
@@ -10,4 +14,12 @@ class BankAppSpringDataJpaApplicationTests {
 	void contextLoads() {
 	}
 
+	@Test
+	void rebuildCommandEndsWhenDone() {
+		String yesterday = LocalDate.now().minusDays(1).toString();
+
+		assertEquals(0, BankAppSpringDataJpaApplication.runCommand("--spring.datasource.url=jdbc:h2:mem:rebuild-command",
+				"--rebuild-daily-summary", "--from=" + yesterday, "--to=" + yesterday));
+	}
+
 }
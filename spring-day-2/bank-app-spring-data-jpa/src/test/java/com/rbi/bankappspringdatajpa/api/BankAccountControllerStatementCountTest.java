@@ -0,0 +1,203 @@
+package com.rbi.bankappspringdatajpa.api;
+
+import com.rbi.bankappspringdatajpa.bulk.AccountCsv;
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionRequestDto;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.repository.AccountTransactionRepo;
+import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import com.rbi.bankappspringdatajpa.repository.DailyAccountSummaryRepo;
+import com.rbi.bankappspringdatajpa.repository.OutboxEventRepo;
+import com.rbi.bankappspringdatajpa.service.BankAccountService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * SQL statements per {@link BankAccountController} endpoint, each run against an account with a short and a long
+ * transaction history. The counts must not depend on the history: reading or changing an account never loads its
+ * transactions. Both caches are off so that every request reaches the database. DELETE is left out because an account
+ * with transactions cannot be deleted.
+ */
+@SpringBootTest(properties = {
+        "spring.cache.type=none",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "account.outbox.relay.enabled=false"})
+@AutoConfigureMockMvc
+class BankAccountControllerStatementCountTest {
+
+    private static final String ACCOUNT = "STMT00000001";
+    private static final String OTHER_ACCOUNT = "STMT00000002";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    BankAccountService service;
+
+    @Autowired
+    BankAccountRepo accountRepo;
+
+    @Autowired
+    AccountTransactionRepo transactionRepo;
+
+    @Autowired
+    DailyAccountSummaryRepo summaryRepo;
+
+    @Autowired
+    OutboxEventRepo outboxRepo;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        service.createAccount(new BankAccount(ACCOUNT, "Statements", 5000_00, "Savings", null));
+        service.createAccount(new BankAccount(OTHER_ACCOUNT, "Statements", 5000_00, "Savings", null));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        outboxRepo.deleteAllInBatch();
+        summaryRepo.deleteAllInBatch();
+        transactionRepo.deleteAllInBatch();
+        accountRepo.deleteAllInBatch();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 1000})
+    void findAccount(int history) throws Exception {
+        withHistory(history);
+        assertEquals(1, statements(get("/api/v1/accounts/" + ACCOUNT)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 1000})
+    void getAccountsPage(int history) throws Exception {
+        withHistory(history);
+        assertEquals(1, statements(get("/api/v1/accounts").param("size", "10")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 1000})
+    void streamAccountsAsNdjson(int history) throws Exception {
+        withHistory(history);
+        assertEquals(1, asyncStatements(get("/api/v1/accounts/stream").accept(MediaType.APPLICATION_NDJSON)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 1000})
+    void streamAccountsAsCsv(int history) throws Exception {
+        withHistory(history);
+        assertEquals(1, asyncStatements(get("/api/v1/accounts/stream").accept(AccountCsv.MEDIA_TYPE)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 1000})
+    void getTransactions(int history) throws Exception {
+        withHistory(history);
+        assertEquals(1, statements(get("/api/v1/accounts/" + ACCOUNT + "/transactions").param("size", "10")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 1000})
+    void getDailySummary(int history) throws Exception {
+        withHistory(history);
+        assertEquals(1, statements(get("/api/v1/accounts/" + ACCOUNT + "/summary")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 1000})
+    void createAccount(int history) throws Exception {
+        withHistory(history);
+        assertEquals(3, statements(post("/api/v1/accounts").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"accountNumber\":\"STMT00000003\",\"accountHolderName\":\"New\",\"balance\":10.00,\"accountType\":\"Savings\"}")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 1000})
+    void importAccounts(int history) throws Exception {
+        withHistory(history);
+        assertEquals(2, statements(post("/api/v1/accounts/import").contentType(AccountCsv.MEDIA_TYPE)
+                .content(AccountCsv.HEADER + "\nSTMT00000003,New,10.00,Savings\nSTMT00000004,New,10.00,Savings\n")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 1000})
+    void deposit(int history) throws Exception {
+        withHistory(history);
+        assertEquals(5, statements(patch("/api/v1/accounts/deposit").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"accountNumber\":\"" + ACCOUNT + "\",\"amount\":10.00}")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 1000})
+    void withdraw(int history) throws Exception {
+        withHistory(history);
+        assertEquals(6, statements(patch("/api/v1/accounts/" + ACCOUNT + "/withdraw/10.00")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 1000})
+    void transfer(int history) throws Exception {
+        withHistory(history);
+        assertEquals(9, statements(post("/api/v1/accounts/transfer").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromAccountNumber\":\"" + ACCOUNT + "\",\"toAccountNumber\":\"" + OTHER_ACCOUNT + "\",\"amount\":10.00}")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 1000})
+    void applyTransactionBatch(int history) throws Exception {
+        withHistory(history);
+        assertEquals(8, statements(post("/api/v1/accounts/transactions/batch").contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"accountNumber\":\"" + ACCOUNT + "\",\"amount\":10.00},"
+                        + "{\"accountNumber\":\"" + OTHER_ACCOUNT + "\",\"amount\":-5.00}]")));
+    }
+
+    // credits to both accounts, which also creates today's summary rows so later postings only update them
+    private void withHistory(int transactions) {
+        List<AccountTransactionRequestDto> batch = new ArrayList<>(transactions * 2);
+        for (int i = 0; i < transactions; i++) {
+            batch.add(new AccountTransactionRequestDto(ACCOUNT, 1_00));
+            batch.add(new AccountTransactionRequestDto(OTHER_ACCOUNT, 1_00));
+        }
+        service.applyTransactionBatch(batch);
+    }
+
+    private long statements(RequestBuilder request) throws Exception {
+        statistics.clear();
+        int status = mockMvc.perform(request).andReturn().getResponse().getStatus();
+        assertTrue(status < 300, "status " + status);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long asyncStatements(RequestBuilder request) throws Exception {
+        statistics.clear();
+        MvcResult result = mockMvc.perform(request).andReturn();
+        int status = mockMvc.perform(asyncDispatch(result)).andReturn().getResponse().getStatus();
+        assertTrue(status < 300, "status " + status);
+        return statistics.getPrepareStatementCount();
+    }
+
+}
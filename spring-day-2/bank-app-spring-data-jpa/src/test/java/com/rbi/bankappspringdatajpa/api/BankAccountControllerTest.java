@@ -3,6 +3,21 @@ package com.rbi.bankappspringdatajpa.api;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.rbi.bankappspringdatajpa.bulk.AccountImporter;
+import com.rbi.bankappspringdatajpa.dto.AccountPageDto;
+import com.rbi.bankappspringdatajpa.dto.AccountResponseDto;
+import com.rbi.bankappspringdatajpa.dto.AccountSummaryDto;
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionRequestDto;
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionResponseDto;
+import com.rbi.bankappspringdatajpa.dto.BatchTransactionResponseDto;
+import com.rbi.bankappspringdatajpa.dto.DailySummaryDto;
+import com.rbi.bankappspringdatajpa.dto.TransferRequestDto;
+import com.rbi.bankappspringdatajpa.dto.TransferResponseDto;
+import com.rbi.bankappspringdatajpa.dto.TransactionPageDto;
+import com.rbi.bankappspringdatajpa.exception.InsufficientBalanceException;
+import com.rbi.bankappspringdatajpa.exception.InvalidRequestException;
+import com.rbi.bankappspringdatajpa.exception.RecordNotFoundException;
+import com.rbi.bankappspringdatajpa.model.TransactionType;
 import com.rbi.bankappspringdatajpa.model.BankAccount;
 import com.rbi.bankappspringdatajpa.service.BankAccountServiceImpl;
 import org.junit.jupiter.api.Test;
@@ -14,11 +29,20 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.json.JsonCompareMode;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -32,17 +56,48 @@ class BankAccountControllerTest {
     @MockitoBean
     private BankAccountServiceImpl service;
 
+    @MockitoBean
+    private AccountImporter accountImporter;
+
     @Test
     void findAccount() throws Exception {
 
-        BankAccount account = new BankAccount("123456789", "John", 2000, "Savings", null);
+        AccountResponseDto account = new AccountResponseDto("123456789", "John", 2000, "Savings");
 
-        Mockito.when(service.getAccountDetails(account.getAccountNumber())).thenReturn(account);
+        Mockito.when(service.getAccountDetails(account.accountNumber())).thenReturn(account);
 
-        mockMvc.perform(get("/api/v1/accounts/" + account.getAccountNumber()))
-                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/accounts/" + account.accountNumber()))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"accountNumber\":\"123456789\",\"accountHolderName\":\"John\","
+                        + "\"balance\":20.00,\"accountType\":\"Savings\"}", JsonCompareMode.STRICT));
 
-        Mockito.verify(service, Mockito.times(1)).getAccountDetails(account.getAccountNumber());
+        Mockito.verify(service, Mockito.times(1)).getAccountDetails(account.accountNumber());
+
+    }
+
+    @Test
+    void findMissingAccountTest() throws Exception {
+
+        Mockito.when(service.getAccountDetails("999999999"))
+                .thenThrow(new RecordNotFoundException("Account with Account Number [999999999] Not Found"));
+
+        mockMvc.perform(get("/api/v1/accounts/999999999"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.timestamp").exists())
+                .andExpect(jsonPath("$.message").value("Account with Account Number [999999999] Not Found"))
+                .andExpect(jsonPath("$.path").value("/api/v1/accounts/999999999"));
+
+    }
+
+    @Test
+    void withdrawWithInsufficientBalanceTest() throws Exception {
+
+        Mockito.when(service.withdraw("123456789", 1500_00, null))
+                .thenThrow(new InsufficientBalanceException("Insufficient account balance"));
+
+        mockMvc.perform(patch("/api/v1/accounts/123456789/withdraw/1500"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.detail").value("Insufficient account balance"));
 
     }
 
@@ -63,6 +118,135 @@ class BankAccountControllerTest {
     }
 
 
+    @Test
+    void getAccountsPageTest() throws Exception {
+
+        AccountResponseDto account = new AccountResponseDto("123456789", "John", 2000, "Savings");
+
+        Mockito.when(service.getAccounts("123456788", 1)).thenReturn(new AccountPageDto(List.of(account), "123456789"));
+
+        mockMvc.perform(get("/api/v1/accounts").param("cursor", "123456788").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accounts[0].accountNumber").value("123456789"))
+                .andExpect(jsonPath("$.nextCursor").value("123456789"));
+
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamAccountsTest() throws Exception {
+
+        Mockito.doAnswer(invocation -> {
+            Consumer<AccountResponseDto> consumer = invocation.getArgument(0);
+            consumer.accept(new AccountResponseDto("123456789", "John", 2000, "Savings"));
+            consumer.accept(new AccountResponseDto("223456789", "Jane", 3000, "Current"));
+            return null;
+        }).when(service).streamAllAccounts(Mockito.any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/accounts/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"accountNumber\":\"123456789\",\"accountHolderName\":\"John\",\"balance\":20.00,\"accountType\":\"Savings\"}",
+                lines[0]);
+        assertEquals("{\"accountNumber\":\"223456789\",\"accountHolderName\":\"Jane\",\"balance\":30.00,\"accountType\":\"Current\"}",
+                lines[1]);
+
+    }
+
+
+    @Test
+    void getTransactionsTest() throws Exception {
+
+        AccountTransactionResponseDto transaction = new AccountTransactionResponseDto("123456789", 42L,
+                LocalDate.of(2025, 3, 1), LocalTime.of(10, 15), 500, TransactionType.CREDIT);
+
+        Mockito.when(service.getTransactions("123456789", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 31), null, 50))
+                .thenReturn(new TransactionPageDto(List.of(transaction), null));
+
+        mockMvc.perform(get("/api/v1/accounts/123456789/transactions")
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions[0].transactionId").value(42))
+                .andExpect(jsonPath("$.transactions[0].type").value("CREDIT"));
+
+    }
+
+    @Test
+    void getTransactionsWithInvalidCursorTest() throws Exception {
+
+        Mockito.when(service.getTransactions("123456789", null, null, "garbage", 50))
+                .thenThrow(new InvalidRequestException("Invalid cursor [garbage]"));
+
+        mockMvc.perform(get("/api/v1/accounts/123456789/transactions").param("cursor", "garbage"))
+                .andExpect(status().isBadRequest());
+
+    }
+
+
+    @Test
+    void getDailySummaryTest() throws Exception {
+
+        LocalDate day = LocalDate.of(2025, 3, 1);
+        Mockito.when(service.getDailySummary("123456789", day, day)).thenReturn(new AccountSummaryDto("123456789",
+                day, day, 750_00, 120_50, List.of(new DailySummaryDto(day, 750_00, 3, 120_50, 1))));
+
+        mockMvc.perform(get("/api/v1/accounts/123456789/summary")
+                        .param("from", "2025-03-01")
+                        .param("to", "2025-03-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.debits").value(120.50))
+                .andExpect(jsonPath("$.days[0].date").value("2025-03-01"))
+                .andExpect(jsonPath("$.days[0].creditCount").value(3));
+
+    }
+
+
+    @Test
+    void applyTransactionBatchTest() throws Exception {
+
+        List<AccountTransactionRequestDto> batch = List.of(
+                new AccountTransactionRequestDto("123456789", 100),
+                new AccountTransactionRequestDto("223456789", -50));
+
+        Mockito.when(service.applyTransactionBatch(batch)).thenReturn(new BatchTransactionResponseDto(2, 2, 100, 50));
+
+        mockMvc.perform(post("/api/v1/accounts/transactions/batch")
+                        .content(mapToJson(batch))
+                        .contentType("application/json"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.transactionCount").value(2))
+                .andExpect(jsonPath("$.accountCount").value(2));
+
+    }
+
+    @Test
+    void transferTest() throws Exception {
+
+        TransferRequestDto transfer = new TransferRequestDto("123456789", "223456789", 250);
+        Mockito.when(service.transfer(transfer, "transfer-1")).thenReturn(new TransferResponseDto(
+                new AccountTransactionResponseDto("123456789", 1, LocalDate.now(), LocalTime.now(), 250, TransactionType.DEBIT),
+                new AccountTransactionResponseDto("223456789", 2, LocalDate.now(), LocalTime.now(), 250, TransactionType.CREDIT)));
+
+        mockMvc.perform(post("/api/v1/accounts/transfer")
+                        .header("Idempotency-Key", "transfer-1")
+                        .content(mapToJson(transfer))
+                        .contentType("application/json"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.debit.accountNumber").value("123456789"))
+                .andExpect(jsonPath("$.credit.accountNumber").value("223456789"));
+
+    }
+
+
     public String mapToJson(Object object) throws JsonProcessingException {
         ObjectMapper mapper = JsonMapper.builder()
                 .findAndAddModules()
@@ -0,0 +1,81 @@
+package com.rbi.bankappspringdatajpa.benchmark;
+
+import com.rbi.bankappspringdatajpa.BankAppSpringDataJpaApplication;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.service.BankAccountService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Latency of {@code getAccountDetails} with the Hibernate second-level cache on and off. The Spring account cache is
+ * off, so every call goes through the repository in a fresh persistence context. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class AccountLookupBenchmark {
+
+    private static final int ACCOUNTS = 1_000;
+    private static final int WARM_UP_LOOKUPS = 50_000;
+    private static final int LOOKUPS = 200_000;
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void lookupLatency(boolean secondLevelCache) {
+        try (ConfigurableApplicationContext context = start(secondLevelCache)) {
+            BankAccountService service = context.getBean(BankAccountService.class);
+            for (int i = 0; i < ACCOUNTS; i++) {
+                service.createAccount(new BankAccount(accountNumber(i), "Lookup", 10_000, "Savings", null));
+            }
+            for (int i = 0; i < WARM_UP_LOOKUPS; i++) {
+                service.getAccountDetails(accountNumber(i % ACCOUNTS));
+            }
+            Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+
+            long[] latencies = new long[LOOKUPS];
+            long start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                long sent = System.nanoTime();
+                service.getAccountDetails(accountNumber((i * 7) % ACCOUNTS));
+                latencies[i] = System.nanoTime() - sent;
+            }
+            long elapsedNanos = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            System.out.printf("second-level cache %-3s: %,9.0f lookups/s, p50 %,6.1f us, p99 %,7.1f us, %,d statements, %,d cache hits%n",
+                    secondLevelCache ? "on" : "off", LOOKUPS / (elapsedNanos / 1e9),
+                    latencies[LOOKUPS / 2] / 1e3, latencies[(int) (LOOKUPS * 0.99)] / 1e3,
+                    statistics.getPrepareStatementCount(), statistics.getSecondLevelCacheHitCount());
+            assertEquals(secondLevelCache ? LOOKUPS : 0, statistics.getSecondLevelCacheHitCount());
+        }
+    }
+
+    // command line arguments, unlike builder properties, take precedence over application.yml
+    private static ConfigurableApplicationContext start(boolean secondLevelCache) {
+        return new SpringApplicationBuilder(BankAppSpringDataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.cache.type=none",
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                        "--spring.jpa.properties.hibernate.cache.use_query_cache=" + secondLevelCache,
+                        "--spring.datasource.url=jdbc:h2:mem:lookup-" + UUID.randomUUID(),
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=warn");
+    }
+
+    private static String accountNumber(int i) {
+        return String.format("LOOKUP%06d", i);
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.rbi.bankappspringdatajpa.benchmark;
+
+import com.rbi.bankappspringdatajpa.BankAppSpringDataJpaApplication;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Allocation and latency of the account read endpoints: a single account, a page of 100 and the NDJSON stream of all
+ * accounts. Requests go through MockMvc with the shipped cache settings, so a repeated lookup is answered from the
+ * account cache and mostly measures the response. The stream is written on an async thread, so allocation is summed
+ * over all threads. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class AccountResponseBenchmark {
+
+    private static final int ACCOUNTS = 10_000;
+    private static final int PAGE_SIZE = 100;
+
+    @Test
+    void accountReads() throws Exception {
+        try (ServletWebServerApplicationContext context = start()) {
+            BankAccountRepo repo = context.getBean(BankAccountRepo.class);
+            List<BankAccount> accounts = new ArrayList<>(ACCOUNTS);
+            for (int i = 0; i < ACCOUNTS; i++) {
+                accounts.add(new BankAccount(accountNumber(i), "Account holder " + i, 1000_00 + i, "Savings", null));
+            }
+            repo.saveAll(accounts);
+            MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+
+            measure("single account", 20_000, 100_000,
+                    i -> get("/api/v1/accounts/" + accountNumber(i % 1000)), mockMvc, false);
+            measure("page of " + PAGE_SIZE, 2_000, 10_000,
+                    i -> get("/api/v1/accounts").param("cursor", accountNumber(i % 9000)).param("size", "" + PAGE_SIZE),
+                    mockMvc, false);
+            measure("stream of " + ACCOUNTS, 20, 100,
+                    i -> get("/api/v1/accounts/stream").accept(MediaType.APPLICATION_NDJSON), mockMvc, true);
+        }
+    }
+
+    private static void measure(String name, int warmUpRequests, int requests, Request request, MockMvc mockMvc,
+                                boolean async) throws Exception {
+        for (int i = 0; i < warmUpRequests; i++) {
+            perform(mockMvc, request.build(i), async);
+        }
+        long[] latencies = new long[requests];
+        long allocatedBefore = allocatedBytes();
+        for (int i = 0; i < requests; i++) {
+            long sent = System.nanoTime();
+            perform(mockMvc, request.build(i), async);
+            latencies[i] = System.nanoTime() - sent;
+        }
+        long allocated = allocatedBytes() - allocatedBefore;
+        Arrays.sort(latencies);
+        System.out.printf("%-16s: p50 %,9.1f us, p99 %,9.1f us, %,11d bytes allocated per request%n", name,
+                latencies[requests / 2] / 1e3, latencies[(int) (requests * 0.99)] / 1e3, allocated / requests);
+    }
+
+    private static void perform(MockMvc mockMvc, RequestBuilder request, boolean async) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (async) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        assertEquals(200, result.getResponse().getStatus());
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return Arrays.stream(threads.getThreadAllocatedBytes(threads.getAllThreadIds())).filter(bytes -> bytes > 0).sum();
+    }
+
+    // command line arguments, unlike builder properties, take precedence over application.yml
+    private static ServletWebServerApplicationContext start() {
+        return (ServletWebServerApplicationContext) new SpringApplicationBuilder(BankAppSpringDataJpaApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:responses-" + UUID.randomUUID(),
+                        "--account.outbox.relay.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=warn");
+    }
+
+    private static String accountNumber(int i) {
+        return String.format("RESP%08d", i);
+    }
+
+    private interface Request {
+        RequestBuilder build(int i);
+    }
+
+}
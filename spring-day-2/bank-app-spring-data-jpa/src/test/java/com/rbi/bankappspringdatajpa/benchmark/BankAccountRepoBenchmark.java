@@ -0,0 +1,117 @@
+package com.rbi.bankappspringdatajpa.benchmark;
+
+import com.rbi.bankappspringdatajpa.BankAppSpringDataJpaApplication;
+import com.rbi.bankappspringdatajpa.dto.AccountResponseDto;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BankAccountRepo} queries against in-memory H2, below the service and its account cache. {@code findById} is
+ * answered from the second-level cache. The keyset page selects balances and is not query cached, so it reaches the
+ * database like {@code findCurrentByAccountNumber} and the balance updates. Run with {@link #main} from the IDE or the test classpath, or through
+ * {@link JmhSuiteBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BankAccountRepoBenchmark {
+
+    private static final int ACCOUNTS = 1_000;
+    private static final int PAGE_SIZE = 20;
+
+    private ConfigurableApplicationContext context;
+    private BankAccountRepo repo;
+    private TransactionTemplate transactionTemplate;
+    private List<String> importBatch;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankAppSpringDataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:repo-" + UUID.randomUUID(),
+                        "--account.outbox.relay.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=warn");
+        repo = context.getBean(BankAccountRepo.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        List<BankAccount> accounts = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(new BankAccount(accountNumber(i), "Benchmark", 1_000_000_000_00L, "Savings", null));
+        }
+        repo.saveAll(accounts);
+        // what one import batch looks up, half of the numbers are taken
+        importBatch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            importBatch.add(accountNumber(ACCOUNTS / 2 + i * 10));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<BankAccount> findById() {
+        return repo.findById(randomAccount());
+    }
+
+    @Benchmark
+    public Optional<BankAccount> findCurrentByAccountNumber() {
+        return repo.findCurrentByAccountNumber(randomAccount());
+    }
+
+    @Benchmark
+    public List<AccountResponseDto> keysetPage() {
+        return repo.findResponsesAfter(randomAccount(), Limit.of(PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Set<String> findExistingAccountNumbers() {
+        return repo.findExistingAccountNumbers(importBatch);
+    }
+
+    @Benchmark
+    public Integer credit() {
+        String accountNumber = randomAccount();
+        return transactionTemplate.execute(status -> repo.credit(accountNumber, 1_00));
+    }
+
+    @Benchmark
+    public Integer debit() {
+        String accountNumber = randomAccount();
+        return transactionTemplate.execute(status -> repo.debit(accountNumber, 1_00, 1000_00));
+    }
+
+    private static String randomAccount() {
+        return accountNumber(ThreadLocalRandom.current().nextInt(ACCOUNTS));
+    }
+
+    private static String accountNumber(int i) {
+        return String.format("REPO%08d", i);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        JmhResults.run(BankAccountRepoBenchmark.class);
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.rbi.bankappspringdatajpa.benchmark;
+
+import com.rbi.bankappspringdatajpa.BankAppSpringDataJpaApplication;
+import com.rbi.bankappspringdatajpa.dto.AccountPageDto;
+import com.rbi.bankappspringdatajpa.dto.AccountResponseDto;
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionRequestDto;
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionResponseDto;
+import com.rbi.bankappspringdatajpa.dto.TransactionPageDto;
+import com.rbi.bankappspringdatajpa.dto.TransferRequestDto;
+import com.rbi.bankappspringdatajpa.dto.TransferResponseDto;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.service.BankAccountService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BankAccountService} operations against in-memory H2, with the configuration the application ships with: the
+ * account cache, the second-level cache and the atomic concurrency mode. Every benchmark method runs in its own fork
+ * on a fresh database. Run with {@link #main} from the IDE or the test classpath, or through {@link JmhSuiteBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BankAccountServiceBenchmark {
+
+    private static final int ACCOUNTS = 100;
+    private static final int HISTORY = 1_000;
+    private static final int PAGE_SIZE = 20;
+
+    private ConfigurableApplicationContext context;
+    private BankAccountService service;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankAppSpringDataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:service-" + UUID.randomUUID(),
+                        "--account.outbox.relay.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=warn");
+        service = context.getBean(BankAccountService.class);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            // enough that the withdrawals never reach the minimum balance
+            service.createAccount(new BankAccount(accountNumber(i), "Benchmark", 1_000_000_000_00L, "Savings", null));
+        }
+        List<AccountTransactionRequestDto> history = new ArrayList<>(HISTORY);
+        for (int i = 0; i < HISTORY; i++) {
+            history.add(new AccountTransactionRequestDto(accountNumber(0), 1_00));
+        }
+        service.applyTransactionBatch(history);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccountResponseDto getAccountDetails() {
+        return service.getAccountDetails(randomAccount());
+    }
+
+    @Benchmark
+    public AccountPageDto getAccountsPage() {
+        return service.getAccounts(null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public TransactionPageDto getTransactionsPage() {
+        return service.getTransactions(accountNumber(0), null, null, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public AccountTransactionResponseDto deposit() {
+        return service.deposit(new AccountTransactionRequestDto(randomAccount(), 1_00));
+    }
+
+    @Benchmark
+    public BankAccount withdraw() {
+        return service.withdraw(randomAccount(), 1_00);
+    }
+
+    @Benchmark
+    public TransferResponseDto transfer() {
+        int from = ThreadLocalRandom.current().nextInt(ACCOUNTS);
+        int to = (from + 1 + ThreadLocalRandom.current().nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+        return service.transfer(new TransferRequestDto(accountNumber(from), accountNumber(to), 1_00));
+    }
+
+    private static String randomAccount() {
+        return accountNumber(ThreadLocalRandom.current().nextInt(ACCOUNTS));
+    }
+
+    private static String accountNumber(int i) {
+        return String.format("SERVICE%05d", i);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        JmhResults.run(BankAccountServiceBenchmark.class);
+    }
+
+}
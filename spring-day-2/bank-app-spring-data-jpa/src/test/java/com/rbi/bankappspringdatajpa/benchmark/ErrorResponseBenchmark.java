@@ -0,0 +1,91 @@
+package com.rbi.bankappspringdatajpa.benchmark;
+
+import com.rbi.bankappspringdatajpa.BankAppSpringDataJpaApplication;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.service.BankAccountService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+
+/**
+ * Requests that end in {@code BankAccountApiExceptionHandler}, next to a successful lookup of the same account. They
+ * go through MockMvc and the whole MVC dispatch, but not through Tomcat. Run with {@link #main} from the IDE or the
+ * test classpath, or through {@link JmhSuiteBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorResponseBenchmark {
+
+    private static final String ACCOUNT = "ERROR0000001";
+
+    private ServletWebServerApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        // command line arguments, unlike builder properties, take precedence over application.yml
+        context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(BankAppSpringDataJpaApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:errors-" + UUID.randomUUID(),
+                        "--account.outbox.relay.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=warn");
+        context.getBean(BankAccountService.class)
+                .createAccount(new BankAccount(ACCOUNT, "Benchmark", 1000_00, "Savings", null));
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int found() throws Exception {
+        return perform(get("/api/v1/accounts/" + ACCOUNT), 200);
+    }
+
+    @Benchmark
+    public int notFound() throws Exception {
+        return perform(get("/api/v1/accounts/MISSING00001"), 404);
+    }
+
+    // the balance is at the minimum, so every withdrawal is refused
+    @Benchmark
+    public int insufficientBalance() throws Exception {
+        return perform(patch("/api/v1/accounts/" + ACCOUNT + "/withdraw/10.00"), 422);
+    }
+
+    @Benchmark
+    public int invalidAmount() throws Exception {
+        return perform(patch("/api/v1/accounts/" + ACCOUNT + "/withdraw/-10.00"), 400);
+    }
+
+    private int perform(RequestBuilder request, int expectedStatus) throws Exception {
+        int status = mockMvc.perform(request).andReturn().getResponse().getStatus();
+        if (status != expectedStatus) {
+            throw new IllegalStateException("expected " + expectedStatus + " but was " + status);
+        }
+        return status;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        JmhResults.run(ErrorResponseBenchmark.class);
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.rbi.bankappspringdatajpa.benchmark;
+
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionRequestDto;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.repository.AccountTransactionRepo;
+import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import com.rbi.bankappspringdatajpa.service.BalanceConcurrencyMode;
+import com.rbi.bankappspringdatajpa.service.BankAccountService;
+import com.rbi.bankappspringdatajpa.service.LedgerCompactor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Concurrent deposits into a single account, the case where the balance column is the bottleneck. The ledger
+ * compactor keeps running on its schedule during the ledger run. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"account.optimistic_retry.max_attempts=100", "account.ledger.compaction_interval=PT1S"})
+class HotAccountDepositBenchmark {
+
+    private static final String HOT_ACCOUNT = "HOTDEPOSIT01";
+    private static final int THREADS = 16;
+    private static final int DEPOSITS_PER_THREAD = 250;
+    private static final int WARM_UP_DEPOSITS = 500;
+
+    @Autowired
+    BankAccountService service;
+
+    @Autowired
+    LedgerCompactor compactor;
+
+    @Autowired
+    BankAccountRepo accountRepo;
+
+    @Autowired
+    AccountTransactionRepo transactionRepo;
+
+    @BeforeEach
+    void setUp() {
+        service.createAccount(new BankAccount(HOT_ACCOUNT, "Hot", 0, "Current", null));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        ReflectionTestUtils.setField(service, "concurrencyMode", BalanceConcurrencyMode.ATOMIC);
+        transactionRepo.deleteAllInBatch();
+        accountRepo.deleteById(HOT_ACCOUNT);
+    }
+
+    @ParameterizedTest
+    @EnumSource(BalanceConcurrencyMode.class)
+    void depositsIntoOneAccount(BalanceConcurrencyMode mode) throws Exception {
+        ReflectionTestUtils.setField(service, "concurrencyMode", mode);
+        AccountTransactionRequestDto deposit = new AccountTransactionRequestDto(HOT_ACCOUNT, 1_00);
+        for (int i = 0; i < WARM_UP_DEPOSITS; i++) {
+            service.deposit(deposit);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < DEPOSITS_PER_THREAD; i++) {
+                    service.deposit(deposit);
+                }
+                return null;
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - began;
+        executor.shutdown();
+
+        int deposits = THREADS * DEPOSITS_PER_THREAD;
+        System.out.printf("%-11s %,6.0f deposits/s into one account (%d threads)%n",
+                mode, deposits / (elapsedNanos / 1e9), THREADS);
+        long expected = (long) (WARM_UP_DEPOSITS + deposits) * 1_00;
+        assertEquals(expected, service.getAccountDetails(HOT_ACCOUNT).balance());
+        compactor.compact();
+        assertEquals(expected, service.getAccountDetails(HOT_ACCOUNT).balance());
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.rbi.bankappspringdatajpa.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs JMH benchmark classes and keeps their results as JSON in {@code target/jmh/<class>.json}, or in the directory
+ * given by {@code -Djmh.results}. Copy a result file away before a change and pass it as {@code -Djmh.baseline} after
+ * it: every score is printed next to the baseline, and with {@code -Djmh.max_regression=<percent>} a benchmark that
+ * got slower by more than that fails the run.
+ */
+final class JmhResults {
+
+    private JmhResults() {
+    }
+
+    static void run(Class<?> benchmark) throws RunnerException {
+        Path result = resultFile(benchmark);
+        try {
+            Files.createDirectories(result.getParent());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        new Runner(new OptionsBuilder()
+                .include(benchmark.getName() + "\\.")
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString())
+                .build()).run();
+
+        String baseline = System.getProperty("jmh.baseline");
+        if (baseline != null) {
+            compare(Path.of(baseline), result, Double.parseDouble(System.getProperty("jmh.max_regression", "Infinity")));
+        }
+    }
+
+    private static Path resultFile(Class<?> benchmark) {
+        return Path.of(System.getProperty("jmh.results", "target/jmh"), benchmark.getSimpleName() + ".json");
+    }
+
+    // Benchmarks are matched by method and parameters, those missing from either file are skipped. The baseline may be
+    // a single result file or a directory of them.
+    static void compare(Path baseline, Path result, double maxRegressionPercent) {
+        Map<String, JsonNode> before = Files.isDirectory(baseline)
+                ? scores(baseline.resolve(result.getFileName())) : scores(baseline);
+        Map<String, JsonNode> after = scores(result);
+        List<String> regressions = new ArrayList<>();
+        after.forEach((key, score) -> {
+            JsonNode old = before.get(key);
+            if (old == null) {
+                return;
+            }
+            double change = (score.path("primaryMetric").path("score").asDouble()
+                    / old.path("primaryMetric").path("score").asDouble() - 1) * 100;
+            // positive when it got slower, whichever way the mode measures
+            double slowdown = "thrpt".equals(score.path("mode").asText()) ? -change : change;
+            System.out.printf("%-70s %14.3f -> %14.3f %-6s %+7.1f%%%n", key,
+                    old.path("primaryMetric").path("score").asDouble(), score.path("primaryMetric").path("score").asDouble(),
+                    score.path("primaryMetric").path("scoreUnit").asText(), change);
+            if (slowdown > maxRegressionPercent) {
+                regressions.add(String.format("%s is %.1f%% slower", key, slowdown));
+            }
+        });
+        if (!regressions.isEmpty()) {
+            throw new AssertionError("Slower than " + baseline + ":\n" + String.join("\n", regressions));
+        }
+    }
+
+    private static Map<String, JsonNode> scores(Path file) {
+        if (!Files.exists(file)) {
+            return Map.of();
+        }
+        Map<String, JsonNode> scores = new LinkedHashMap<>();
+        try {
+            for (JsonNode run : JsonMapper.builder().build().readTree(file.toFile())) {
+                Map<String, String> params = new TreeMap<>();
+                run.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+                // class and method, without the package
+                String benchmark = run.path("benchmark").asText();
+                benchmark = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+                scores.put(benchmark + (params.isEmpty() ? "" : params), run);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return scores;
+    }
+
+}
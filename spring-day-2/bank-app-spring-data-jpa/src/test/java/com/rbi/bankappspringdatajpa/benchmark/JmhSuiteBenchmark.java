@@ -0,0 +1,28 @@
+package com.rbi.bankappspringdatajpa.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.openjdk.jmh.runner.RunnerException;
+
+/**
+ * Runs the JMH benchmarks with {@code mvn test -Pbenchmark}, each into its JSON file under {@code target/jmh}. Add
+ * {@code -Dtest=JmhSuiteBenchmark} to run only these, and {@code -Djmh.baseline} to compare against an earlier run,
+ * see {@link JmhResults}.
+ */
+@Tag("benchmark")
+class JmhSuiteBenchmark {
+
+    @ParameterizedTest
+    @ValueSource(classes = {
+            BankAccountServiceBenchmark.class,
+            BankAccountRepoBenchmark.class,
+            JsonSerializationBenchmark.class,
+            ErrorResponseBenchmark.class,
+            MoneyArithmeticBenchmark.class,
+            TransactionIdGeneratorBenchmark.class})
+    void run(Class<?> benchmark) throws RunnerException {
+        JmhResults.run(benchmark);
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.rbi.bankappspringdatajpa.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.rbi.bankappspringdatajpa.dto.AccountResponseDto;
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionRequestDto;
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionResponseDto;
+import com.rbi.bankappspringdatajpa.dto.TransactionPageDto;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.model.TransactionType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson reading and writing the bodies of the account endpoints, with the amounts going through {@code JsonMoney}
+ * or the hand-written {@code AccountResponseSerializer}. The mapper is set up the way Spring Boot sets up the one the
+ * controllers use. Run with {@link #main} from the IDE or the test classpath, or through {@link JmhSuiteBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private ObjectMapper mapper;
+    private BankAccount account;
+    private AccountResponseDto accountResponse;
+    private AccountTransactionResponseDto transaction;
+    private TransactionPageDto transactionPage;
+    private byte[] depositRequest;
+
+    @Setup
+    public void setUp() {
+        mapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        account = new BankAccount("JSON00000001", "Benchmark", 12_345_67, "Savings", null);
+        accountResponse = AccountResponseDto.of(account);
+        transaction = new AccountTransactionResponseDto("JSON00000001", 1_234_567_890_123L,
+                LocalDate.of(2025, 4, 1), LocalTime.of(10, 15, 30), 250_00, TransactionType.CREDIT);
+        List<AccountTransactionResponseDto> transactions = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            transactions.add(new AccountTransactionResponseDto("JSON00000001", 1_234_567_890_123L - i,
+                    LocalDate.of(2025, 4, 1), LocalTime.of(10, 15, 30).minusMinutes(i), 10_00 + i,
+                    i % 2 == 0 ? TransactionType.CREDIT : TransactionType.DEBIT));
+        }
+        transactionPage = new TransactionPageDto(transactions, "1234567890104");
+        depositRequest = "{\"accountNumber\":\"JSON00000001\",\"amount\":250.00}".getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] writeBankAccount() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(account);
+    }
+
+    // what the API writes for an account, in the same layout as the entity
+    @Benchmark
+    public byte[] writeAccountResponse() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(accountResponse);
+    }
+
+    @Benchmark
+    public byte[] writeTransaction() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(transaction);
+    }
+
+    @Benchmark
+    public byte[] writeTransactionPage() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(transactionPage);
+    }
+
+    @Benchmark
+    public AccountTransactionRequestDto readDepositRequest() throws IOException {
+        return mapper.readValue(depositRequest, AccountTransactionRequestDto.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        JmhResults.run(JsonSerializationBenchmark.class);
+    }
+
+}
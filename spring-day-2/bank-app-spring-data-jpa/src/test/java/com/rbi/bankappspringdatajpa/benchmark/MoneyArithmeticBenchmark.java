@@ -0,0 +1,72 @@
+package com.rbi.bankappspringdatajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applying a run of postings to a balance with the minimum balance check, once with amounts as long minor units
+ * (what the service does) and once with {@link BigDecimal}. Run with {@link #main} from the IDE or the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyArithmeticBenchmark {
+
+    private static final int POSTINGS = 1_000;
+    private static final long MIN_BALANCE = 1000_00;
+    private static final BigDecimal MIN_BALANCE_DECIMAL = BigDecimal.valueOf(MIN_BALANCE, 2);
+
+    private long[] minorUnits;
+    private BigDecimal[] decimals;
+
+    @Setup
+    public void setUp() {
+        minorUnits = new long[POSTINGS];
+        decimals = new BigDecimal[POSTINGS];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < POSTINGS; i++) {
+            // credits and debits from 0.01 to 999.99
+            long amount = random.nextLong(1, 100_000) * (i % 3 == 0 ? -1 : 1);
+            minorUnits[i] = amount;
+            decimals[i] = BigDecimal.valueOf(amount, 2);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSTINGS)
+    public long longMinorUnits() {
+        long balance = 5000_00;
+        for (long amount : minorUnits) {
+            long next = Math.addExact(balance, amount);
+            if (next >= MIN_BALANCE) {
+                balance = next;
+            }
+        }
+        return balance;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSTINGS)
+    public BigDecimal bigDecimal() {
+        BigDecimal balance = BigDecimal.valueOf(5000_00, 2);
+        for (BigDecimal amount : decimals) {
+            BigDecimal next = balance.add(amount);
+            if (next.compareTo(MIN_BALANCE_DECIMAL) >= 0) {
+                balance = next;
+            }
+        }
+        return balance;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        JmhResults.run(MoneyArithmeticBenchmark.class);
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.rbi.bankappspringdatajpa.benchmark;
+
+import com.rbi.bankappspringdatajpa.BankAppSpringDataJpaApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Throughput of {@code GET /api/v1/accounts/{accountNumber}} for accounts that do not exist, the traffic a scanner or
+ * a retrying client produces. Requests go through MockMvc on the calling thread, so the allocation counter of that
+ * thread covers the whole request. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class NotFoundResponseBenchmark {
+
+    private static final int WARM_UP_REQUESTS = 20_000;
+    private static final int REQUESTS = 100_000;
+
+    @Test
+    void notFoundThroughput() throws Exception {
+        try (ServletWebServerApplicationContext context = start()) {
+            MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+            for (int i = 0; i < WARM_UP_REQUESTS; i++) {
+                lookUpMissingAccount(mockMvc, i);
+            }
+
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                lookUpMissingAccount(mockMvc, i);
+            }
+            long elapsedNanos = System.nanoTime() - start;
+            long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+            System.out.printf("404 responses: %,8.0f requests/s, %,6.1f us per request, %,7d bytes allocated per request%n",
+                    REQUESTS / (elapsedNanos / 1e9), elapsedNanos / 1e3 / REQUESTS, allocated / REQUESTS);
+        }
+    }
+
+    private static void lookUpMissingAccount(MockMvc mockMvc, int i) throws Exception {
+        int status = mockMvc.perform(get("/api/v1/accounts/" + String.format("MISSING%05d", i % 100_000)))
+                .andReturn().getResponse().getStatus();
+        assertEquals(404, status);
+    }
+
+    // command line arguments, unlike builder properties, take precedence over application.yml
+    private static ServletWebServerApplicationContext start() {
+        return (ServletWebServerApplicationContext) new SpringApplicationBuilder(BankAppSpringDataJpaApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:not-found-" + UUID.randomUUID(),
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=warn");
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.rbi.bankappspringdatajpa.benchmark;
+
+import com.rbi.bankappspringdatajpa.BankAppSpringDataJpaApplication;
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionRequestDto;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.service.BankAccountService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The {@link HotAccountDepositBenchmark} workload against a striped account, for different numbers of stripes. One
+ * stripe has a single hot row like the atomic mode. Every run starts its own application with its own database. Run
+ * with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class StripedDepositBenchmark {
+
+    private static final String HOT_ACCOUNT = "HOTSTRIPE001";
+    private static final int THREADS = 16;
+    private static final int DEPOSITS_PER_THREAD = 250;
+    private static final int WARM_UP_DEPOSITS = 500;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 8, 32})
+    void depositsIntoOneStripedAccount(int stripes) throws Exception {
+        try (ConfigurableApplicationContext context = start(stripes)) {
+            BankAccountService service = context.getBean(BankAccountService.class);
+            service.createAccount(new BankAccount(HOT_ACCOUNT, "Hot", 0, "Current", null));
+            AccountTransactionRequestDto deposit = new AccountTransactionRequestDto(HOT_ACCOUNT, 1_00);
+            for (int i = 0; i < WARM_UP_DEPOSITS; i++) {
+                service.deposit(deposit);
+            }
+
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < DEPOSITS_PER_THREAD; i++) {
+                        service.deposit(deposit);
+                    }
+                    return null;
+                }));
+            }
+            long began = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+            long elapsedNanos = System.nanoTime() - began;
+            executor.shutdown();
+
+            int deposits = THREADS * DEPOSITS_PER_THREAD;
+            System.out.printf("%2d stripes %,6.0f deposits/s into one account (%d threads)%n",
+                    stripes, deposits / (elapsedNanos / 1e9), THREADS);
+            assertEquals((long) (WARM_UP_DEPOSITS + deposits) * 1_00, service.getAccountDetails(HOT_ACCOUNT).balance());
+        }
+    }
+
+    // command line arguments, unlike builder properties, take precedence over application.yml
+    private static ConfigurableApplicationContext start(int stripes) {
+        return new SpringApplicationBuilder(BankAppSpringDataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:striped-" + UUID.randomUUID(),
+                        "--account.striping.accounts=" + HOT_ACCOUNT,
+                        "--account.striping.stripes=" + stripes,
+                        "--account.outbox.relay.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=warn");
+    }
+
+}
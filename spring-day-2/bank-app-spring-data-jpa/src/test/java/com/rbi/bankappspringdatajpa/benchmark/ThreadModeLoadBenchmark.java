@@ -0,0 +1,122 @@
+package com.rbi.bankappspringdatajpa.benchmark;
+
+import com.rbi.bankappspringdatajpa.BankAppSpringDataJpaApplication;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.service.BankAccountService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Latency and throughput of {@code GET /api/v1/accounts/{accountNumber}} with the servlet container on platform
+ * threads and on virtual threads. Every client is a virtual thread issuing requests back to back. The account cache
+ * is off so that every request blocks on the database. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ThreadModeLoadBenchmark {
+
+    private static final int ACCOUNTS = 100;
+    private static final int REQUESTS_PER_CLIENT = 10;
+    private static final int WARM_UP_REQUESTS = 2_000;
+
+    @ParameterizedTest
+    @CsvSource({
+            "false, 100", "true, 100",
+            "false, 1000", "true, 1000",
+            "false, 10000", "true, 10000"})
+    void requestLatency(boolean virtualThreads, int clients) throws Exception {
+        try (ServletWebServerApplicationContext context = start(virtualThreads)) {
+            BankAccountService service = context.getBean(BankAccountService.class);
+            for (int i = 0; i < ACCOUNTS; i++) {
+                service.createAccount(new BankAccount(accountNumber(i), "Load", 10_000, "Savings", null));
+            }
+            String baseUrl = "http://localhost:" + context.getWebServer().getPort() + "/api/v1/accounts/";
+
+            long[] latencies = new long[clients * REQUESTS_PER_CLIENT];
+            AtomicInteger completed = new AtomicInteger();
+            AtomicInteger errors = new AtomicInteger();
+            CountDownLatch startSignal = new CountDownLatch(1);
+            long start;
+            try (HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+                 ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < WARM_UP_REQUESTS; i++) {
+                    client.send(HttpRequest.newBuilder(URI.create(baseUrl + accountNumber(i % ACCOUNTS))).build(),
+                            HttpResponse.BodyHandlers.discarding());
+                }
+                for (int c = 0; c < clients; c++) {
+                    int clientIndex = c;
+                    clientThreads.submit(() -> {
+                        startSignal.await();
+                        for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                            HttpRequest request = HttpRequest.newBuilder(
+                                    URI.create(baseUrl + accountNumber((clientIndex + r) % ACCOUNTS))).build();
+                            long sent = System.nanoTime();
+                            try {
+                                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() != 200) {
+                                    errors.incrementAndGet();
+                                    continue;
+                                }
+                                latencies[completed.getAndIncrement()] = System.nanoTime() - sent;
+                            } catch (Exception ex) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    });
+                }
+                start = System.nanoTime();
+                startSignal.countDown();
+                clientThreads.shutdown();
+                assertTrue(clientThreads.awaitTermination(10, TimeUnit.MINUTES));
+            }
+            long elapsedNanos = System.nanoTime() - start;
+
+            long[] sorted = Arrays.copyOf(latencies, completed.get());
+            Arrays.sort(sorted);
+            System.out.printf("%-8s threads, %,6d clients: %,8.0f requests/s, p50 %,7.1f ms, p99 %,8.1f ms, %,d errors%n",
+                    virtualThreads ? "virtual" : "platform", clients, sorted.length / (elapsedNanos / 1e9),
+                    percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6, errors.get());
+            assertTrue(sorted.length > 0);
+        }
+    }
+
+    // command line arguments, unlike builder properties, take precedence over application.yml
+    private static ServletWebServerApplicationContext start(boolean virtualThreads) {
+        return (ServletWebServerApplicationContext) new SpringApplicationBuilder(BankAppSpringDataJpaApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.cache.type=none",
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + UUID.randomUUID(),
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=warn");
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+    }
+
+    private static String accountNumber(int i) {
+        return String.format("LOAD%08d", i);
+    }
+
+}
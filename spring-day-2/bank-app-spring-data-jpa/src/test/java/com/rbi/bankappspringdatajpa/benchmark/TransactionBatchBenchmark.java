@@ -0,0 +1,85 @@
+package com.rbi.bankappspringdatajpa.benchmark;
+
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionRequestDto;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.repository.AccountTransactionRepo;
+import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import com.rbi.bankappspringdatajpa.service.BankAccountService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Settlement batch throughput against H2 for different JDBC batch sizes. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class TransactionBatchBenchmark {
+
+    private static final int ACCOUNTS = 100;
+    private static final int ENTRIES_PER_BATCH = 10_000;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    BankAccountService service;
+
+    @Autowired
+    BankAccountRepo accountRepo;
+
+    @Autowired
+    AccountTransactionRepo transactionRepo;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            service.createAccount(new BankAccount(accountNumber(i), "Batch", 10_000, "Current", null));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        transactionRepo.deleteAllInBatch();
+        accountRepo.deleteAllInBatch();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 50, 500})
+    void settlementBatchThroughput(int jdbcBatchSize) {
+        ReflectionTestUtils.setField(service, "batchJdbcBatchSize", jdbcBatchSize);
+        List<AccountTransactionRequestDto> batch = new ArrayList<>(ENTRIES_PER_BATCH);
+        for (int i = 0; i < ENTRIES_PER_BATCH; i++) {
+            // every account nets +1 per round
+            long amount = i % 2 == 0 ? 3 : -1;
+            batch.add(new AccountTransactionRequestDto(accountNumber(i / 2 % ACCOUNTS), amount));
+        }
+
+        service.applyTransactionBatch(batch);
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            service.applyTransactionBatch(batch);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        System.out.printf("jdbc batch size %3d: %,.0f transactions/s (%d ms per %d entry batch)%n",
+                jdbcBatchSize, ROUNDS * ENTRIES_PER_BATCH / (elapsedNanos / 1e9),
+                elapsedNanos / 1_000_000 / ROUNDS, ENTRIES_PER_BATCH);
+        assertEquals(10_000 + (ROUNDS + 1) * ENTRIES_PER_BATCH / ACCOUNTS,
+                accountRepo.findById(accountNumber(0)).orElseThrow().getBalance());
+        assertEquals((long) (ROUNDS + 1) * ENTRIES_PER_BATCH, transactionRepo.count());
+    }
+
+    private static String accountNumber(int i) {
+        return String.format("BATCH%07d", i);
+    }
+
+}
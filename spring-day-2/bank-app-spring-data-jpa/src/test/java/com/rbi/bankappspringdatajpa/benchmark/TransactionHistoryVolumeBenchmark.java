@@ -0,0 +1,112 @@
+package com.rbi.bankappspringdatajpa.benchmark;
+
+import com.rbi.bankappspringdatajpa.dto.TransactionPageDto;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.model.TransactionType;
+import com.rbi.bankappspringdatajpa.service.BankAccountService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Statement latency while the history grows to 1M+ rows in H2. The hot account owns half of all rows,
+ * the rest is spread over other accounts. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class TransactionHistoryVolumeBenchmark {
+
+    private static final String HOT_ACCOUNT = "HIST00000000";
+    private static final int[] TOTAL_ROWS = {10_000, 100_000, 1_000_000};
+    private static final int SAMPLES = 300;
+    private static final int INSERT_BATCH = 5_000;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+
+    @Autowired
+    BankAccountService service;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void statementLatencyStaysFlatAsHistoryGrows() {
+        for (int i = 0; i < 10; i++) {
+            service.createAccount(new BankAccount(String.format("HIST%08d", i), "History", 0, "Savings", null));
+        }
+
+        List<long[]> results = new ArrayList<>();
+        long inserted = 0;
+        for (int total : TOTAL_ROWS) {
+            insertHistory(inserted, total);
+            inserted = total;
+
+            // first round warms up the JIT and the H2 page cache
+            sample(null);
+            long[] firstPage = sample(null);
+            // a cursor somewhere in the middle of the hot account's history
+            TransactionPageDto page = service.getTransactions(HOT_ACCOUNT, null, null, null, 1000);
+            for (int i = 0; i < 3 && page.nextCursor() != null; i++) {
+                page = service.getTransactions(HOT_ACCOUNT, null, null, page.nextCursor(), 1000);
+            }
+            long[] deepPage = sample(page.nextCursor());
+            results.add(new long[]{total, percentile(firstPage, 50), percentile(firstPage, 99),
+                    percentile(deepPage, 50), percentile(deepPage, 99)});
+        }
+
+        System.out.println("rows        first p50  first p99  deep p50   deep p99   (microseconds)");
+        for (long[] r : results) {
+            System.out.printf("%-11d %-10d %-10d %-10d %-10d%n", r[0], r[1], r[2], r[3], r[4]);
+        }
+        // with the (account, date, time) index the cost depends on the page size, not on the history size
+        long smallest = results.get(0)[1];
+        long largest = results.get(results.size() - 1)[1];
+        assertTrue(largest < Math.max(10 * smallest, 5_000), "first page p50 grew from " + smallest + " to " + largest + " us");
+    }
+
+    private long[] sample(String cursor) {
+        long[] micros = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            TransactionPageDto page = service.getTransactions(HOT_ACCOUNT, null, null, cursor, 50);
+            micros[i] = (System.nanoTime() - start) / 1_000;
+            assertEquals(50, page.transactions().size());
+        }
+        return micros;
+    }
+
+    private void insertHistory(long fromId, long toId) {
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (long id = fromId + 1; id <= toId; id++) {
+            String account = id % 2 == 0 ? HOT_ACCOUNT : String.format("HIST%08d", 1 + id % 9);
+            LocalDate date = FIRST_DAY.plusDays(id / 1_000);
+            LocalTime time = LocalTime.ofSecondOfDay(id % 86_400);
+            batch.add(new Object[]{id, Date.valueOf(date), Time.valueOf(time), 10.0, TransactionType.CREDIT.name(), account});
+            if (batch.size() == INSERT_BATCH || id == toId) {
+                jdbcTemplate.batchUpdate("insert into account_transaction " +
+                        "(transaction_id, date, time, amount, transaction_type, account_account_number) " +
+                        "values (?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private static long percentile(long[] values, int percentile) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+    }
+
+}
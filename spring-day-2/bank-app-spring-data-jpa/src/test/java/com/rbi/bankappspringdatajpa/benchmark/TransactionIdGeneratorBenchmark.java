@@ -0,0 +1,60 @@
+package com.rbi.bankappspringdatajpa.benchmark;
+
+import com.rbi.bankappspringdatajpa.service.PooledSequenceTransactionIdGenerator;
+import com.rbi.bankappspringdatajpa.service.SnowflakeTransactionIdGenerator;
+import com.rbi.bankappspringdatajpa.service.TransactionIdGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the transaction id generators, run with {@link #main} from the IDE or the test classpath.
+ * The sequence generator goes to an in-memory H2 database once per {@code allocationSize} ids.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionIdGeneratorBenchmark {
+
+    @Param({"snowflake", "sequence"})
+    public String generator;
+
+    @Param({"50", "1000"})
+    public int allocationSize;
+
+    private TransactionIdGenerator idGenerator;
+
+    @Setup
+    public void setUp() {
+        idGenerator = switch (generator) {
+            case "snowflake" -> new SnowflakeTransactionIdGenerator(1);
+            case "sequence" -> {
+                DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:idbench;DB_CLOSE_DELAY=-1", "sa", "");
+                yield new PooledSequenceTransactionIdGenerator(dataSource, allocationSize);
+            }
+            default -> throw new IllegalArgumentException(generator);
+        };
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long singleThread() {
+        return idGenerator.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long eightThreads() {
+        return idGenerator.nextId();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        JmhResults.run(TransactionIdGeneratorBenchmark.class);
+    }
+
+}
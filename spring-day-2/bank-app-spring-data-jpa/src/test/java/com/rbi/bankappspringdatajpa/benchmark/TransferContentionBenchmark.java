@@ -0,0 +1,124 @@
+package com.rbi.bankappspringdatajpa.benchmark;
+
+import com.rbi.bankappspringdatajpa.dto.TransferRequestDto;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.repository.AccountTransactionRepo;
+import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import com.rbi.bankappspringdatajpa.service.BalanceConcurrencyMode;
+import com.rbi.bankappspringdatajpa.service.BankAccountService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Random transfers between a small hot set of accounts, so that most transfers contend for a row another thread
+ * holds. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "account.optimistic_retry.max_attempts=50")
+class TransferContentionBenchmark {
+
+    private static final int HOT_ACCOUNTS = 8;
+    private static final int TRANSFERS_PER_THREAD = 200;
+    private static final int WARM_UP_TRANSFERS = 500;
+    private static final long INITIAL_BALANCE = 1_000_000_00;
+
+    @Autowired
+    BankAccountService service;
+
+    @Autowired
+    BankAccountRepo accountRepo;
+
+    @Autowired
+    AccountTransactionRepo transactionRepo;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < HOT_ACCOUNTS; i++) {
+            service.createAccount(new BankAccount(accountNumber(i), "Hot", INITIAL_BALANCE, "Current", null));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        // the service is shared with the other tests in this context
+        ReflectionTestUtils.setField(service, "concurrencyMode", BalanceConcurrencyMode.ATOMIC);
+        transactionRepo.deleteAllInBatch();
+        accountRepo.deleteAllInBatch();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "ATOMIC, 4", "OPTIMISTIC, 4", "PESSIMISTIC, 4", "LEDGER, 4",
+            "ATOMIC, 16", "OPTIMISTIC, 16", "PESSIMISTIC, 16", "LEDGER, 16"})
+    void randomTransfers(BalanceConcurrencyMode mode, int threads) throws Exception {
+        ReflectionTestUtils.setField(service, "concurrencyMode", mode);
+        // warm up, the transactions written here are not counted below
+        for (int i = 0; i < WARM_UP_TRANSFERS; i++) {
+            service.transfer(new TransferRequestDto(accountNumber(i % HOT_ACCOUNTS), accountNumber((i + 1) % HOT_ACCOUNTS), 1));
+        }
+        long transactionsBefore = transactionRepo.count();
+        AtomicInteger transfers = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    int from = random.nextInt(HOT_ACCOUNTS);
+                    int to = (from + 1 + random.nextInt(HOT_ACCOUNTS - 1)) % HOT_ACCOUNTS;
+                    try {
+                        service.transfer(new TransferRequestDto(accountNumber(from), accountNumber(to), 1 + random.nextInt(100)));
+                        transfers.incrementAndGet();
+                    } catch (OptimisticLockingFailureException ex) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - began;
+        executor.shutdown();
+
+        System.out.printf("%-11s %2d threads: %,6.0f transfers/s, %d gave up after retries%n",
+                mode, threads, transfers.get() / (elapsedNanos / 1e9), conflicts.get());
+        long total = 0;
+        for (int i = 0; i < HOT_ACCOUNTS; i++) {
+            total += service.getAccountDetails(accountNumber(i)).balance();
+        }
+        assertEquals(HOT_ACCOUNTS * INITIAL_BALANCE, total);
+        assertEquals(2L * transfers.get(), transactionRepo.count() - transactionsBefore);
+    }
+
+    private static String accountNumber(int i) {
+        return String.format("HOT%09d", i);
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.rbi.bankappspringdatajpa.bulk;
+
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// a small batch size so that duplicates are found both within a batch and in batches committed before
+@SpringBootTest(properties = {"account.import.batch_size=3", "account.import.max_reported_errors=3"})
+@AutoConfigureMockMvc
+class AccountImportTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    BankAccountRepo accountRepo;
+
+    @AfterEach
+    void cleanUp() {
+        accountRepo.deleteAllInBatch();
+    }
+
+    @Test
+    void csvRowsAreImportedAndRejectedRowsReported() throws Exception {
+        accountRepo.save(new BankAccount("IMPORT000002", "Existing", 100_00, "Savings", null));
+        String csv = AccountCsv.HEADER + "\n" +
+                "IMPORT000001,\"Doe, Jane\",1500.50,Savings\n" +
+                "IMPORT000002,Taken,10.00,Savings\n" +
+                "IMPORT000003,John,20.00,Current\n" +
+                "\n" +
+                "IMPORT000004,Ann,12.345,Current\n" +
+                "IMPORT000005,Bob,30.00,Current\n" +
+                "IMPORT000003,Again,40.00,Current\n" +
+                "IMPORT000006,Eve,-1.00,Current\n" +
+                "IMPORT000007,Sam,50.00\n";
+
+        mockMvc.perform(post("/api/v1/accounts/import").contentType(AccountCsv.MEDIA_TYPE).content(csv))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.rows").value(8))
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.rejected").value(5))
+                .andExpect(jsonPath("$.errors.length()").value(3))
+                .andExpect(jsonPath("$.errors[0].line").value(3))
+                .andExpect(jsonPath("$.errors[0].accountNumber").value("IMPORT000002"))
+                .andExpect(jsonPath("$.errors[0].error").value("Account already exists"))
+                .andExpect(jsonPath("$.errors[1].line").value(6));
+
+        assertEquals("Doe, Jane", accountRepo.findById("IMPORT000001").orElseThrow().getAccountHolderName());
+        assertEquals(150050, accountRepo.findById("IMPORT000001").orElseThrow().getBalance());
+        assertEquals("John", accountRepo.findById("IMPORT000003").orElseThrow().getAccountHolderName());
+        assertEquals(4, accountRepo.count());
+    }
+
+    @Test
+    void ndjsonImportReportsUnreadableLines() throws Exception {
+        String ndjson = """
+                {"accountNumber":"IMPORT000011","accountHolderName":"Jane","balance":10.25,"accountType":"Savings"}
+                {"accountNumber":"IMPORT000012",
+                {"accountNumber":"IMPORT000013","accountHolderName":"John","balance":5,"accountType":"Current"}
+                """;
+
+        mockMvc.perform(post("/api/v1/accounts/import").contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(2));
+
+        assertEquals(1025, accountRepo.findById("IMPORT000011").orElseThrow().getBalance());
+    }
+
+    @Test
+    void csvExportCanBeImportedAgain() throws Exception {
+        accountRepo.save(new BankAccount("EXPORT000001", "Doe, \"JD\" Jane", 1234_56, "Savings", null));
+        accountRepo.save(new BankAccount("EXPORT000002", "John", 0, "Current", null));
+
+        MvcResult export = mockMvc.perform(get("/api/v1/accounts/stream").accept(AccountCsv.MEDIA_TYPE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String csv = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(csv.startsWith(AccountCsv.HEADER + "\n"));
+        assertTrue(csv.contains("EXPORT000001,\"Doe, \"\"JD\"\" Jane\",1234.56,Savings\n"));
+
+        accountRepo.deleteAllInBatch();
+        mockMvc.perform(post("/api/v1/accounts/import").contentType(AccountCsv.MEDIA_TYPE).content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+
+        assertEquals("Doe, \"JD\" Jane", accountRepo.findById("EXPORT000001").orElseThrow().getAccountHolderName());
+    }
+
+    @Test
+    void csvWithoutHeaderIsRejected() throws Exception {
+        mockMvc.perform(post("/api/v1/accounts/import").contentType(AccountCsv.MEDIA_TYPE)
+                        .content("IMPORT000001,Jane,1.00,Savings\n"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, accountRepo.count());
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.rbi.bankappspringdatajpa.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionRequestDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    private final ObjectMapper mapper = JsonMapper.builder().findAndAddModules().build();
+
+    @Test
+    void formatsMinorUnitsExactly() {
+        assertEquals("123.45", Money.format(12345));
+        assertEquals("0.05", Money.format(5));
+        assertEquals("-0.05", Money.format(-5));
+        assertEquals("-10.50", Money.format(-1050));
+        assertEquals("92233720368547758.07", Money.format(Long.MAX_VALUE));
+    }
+
+    @Test
+    void convertsDecimalColumnsWithoutRounding() {
+        MoneyConverter converter = new MoneyConverter();
+
+        assertEquals(new BigDecimal("0.30"), converter.convertToDatabaseColumn(30L));
+        assertEquals(30L, converter.convertToEntityAttribute(new BigDecimal("0.3")));
+        assertThrows(ArithmeticException.class, () -> converter.convertToEntityAttribute(new BigDecimal("0.001")));
+    }
+
+    @Test
+    void jsonAmountsAreReadAndWrittenInMajorUnits() throws Exception {
+        AccountTransactionRequestDto request = mapper.readValue(
+                "{\"accountNumber\":\"123456789\",\"amount\":0.1}", AccountTransactionRequestDto.class);
+        assertEquals(10, request.amount());
+        assertEquals(2500, mapper.readValue("{\"amount\":25}", AccountTransactionRequestDto.class).amount());
+        assertEquals(2501, mapper.readValue("{\"amount\":\"25.01\"}", AccountTransactionRequestDto.class).amount());
+
+        // 0.1 + 0.2 is not 0.30000000000000004 here
+        AccountTransactionRequestDto sum = new AccountTransactionRequestDto("123456789", 10 + 20);
+        assertEquals("{\"accountNumber\":\"123456789\",\"amount\":0.30}", mapper.writeValueAsString(sum));
+    }
+
+    @Test
+    void amountsWithMoreThanTwoDecimalsAreRejected() {
+        assertThrows(InvalidFormatException.class,
+                () -> mapper.readValue("{\"amount\":0.001}", AccountTransactionRequestDto.class));
+    }
+
+}
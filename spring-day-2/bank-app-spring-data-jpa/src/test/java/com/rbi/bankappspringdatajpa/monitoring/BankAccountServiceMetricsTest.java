@@ -0,0 +1,95 @@
+package com.rbi.bankappspringdatajpa.monitoring;
+
+import com.rbi.bankappspringdatajpa.exception.DuplicateRecordException;
+import com.rbi.bankappspringdatajpa.dto.TransferRequestDto;
+import com.rbi.bankappspringdatajpa.exception.InsufficientBalanceException;
+import com.rbi.bankappspringdatajpa.exception.InvalidRequestException;
+import com.rbi.bankappspringdatajpa.exception.RecordNotFoundException;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.repository.AccountTransactionRepo;
+import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import com.rbi.bankappspringdatajpa.service.BankAccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.hamcrest.Matchers.containsString;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class BankAccountServiceMetricsTest {
+
+    private static final String ACCOUNT_NUMBER = "METRIC000001";
+
+    @Autowired
+    BankAccountService service;
+
+    @Autowired
+    BankAccountRepo accountRepo;
+
+    @Autowired
+    AccountTransactionRepo transactionRepo;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @AfterEach
+    void cleanUp() {
+        transactionRepo.deleteAllInBatch();
+        accountRepo.deleteById(ACCOUNT_NUMBER);
+    }
+
+    @Test
+    void operationsAreTimedByOutcome() {
+        BankAccount account = new BankAccount(ACCOUNT_NUMBER, "Metrics", 1500_00, "Savings", null);
+        service.createAccount(account);
+        assertThrows(DuplicateRecordException.class, () -> service.createAccount(account));
+        assertThrows(RecordNotFoundException.class, () -> service.getAccountDetails("METRIC999999"));
+        assertThrows(InsufficientBalanceException.class, () -> service.withdraw(ACCOUNT_NUMBER, 1000_00));
+        assertThrows(InvalidRequestException.class,
+                () -> service.transfer(new TransferRequestDto(ACCOUNT_NUMBER, ACCOUNT_NUMBER, 1_00)));
+        service.withdraw(ACCOUNT_NUMBER, 10_00);
+        service.withdraw(ACCOUNT_NUMBER, 10_00);
+
+        assertEquals(1, timer("createAccount", "success").count());
+        assertEquals(1, timer("createAccount", "duplicate").count());
+        assertEquals(1, timer("getAccountDetails", "not_found").count());
+        assertEquals(1, timer("withdraw", "insufficient_balance").count());
+        assertEquals(1, timer("transfer", "invalid_request").count());
+        assertEquals(2, timer("withdraw", "success").count());
+    }
+
+    @Test
+    void metricsAreExposedForPrometheus() throws Exception {
+        service.createAccount(new BankAccount(ACCOUNT_NUMBER, "Metrics", 1500_00, "Savings", null));
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("bank_account_operation_seconds_count{")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("hibernate_")));
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return meterRegistry.get(BankAccountServiceMetrics.METRIC_NAME)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .timer();
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.rbi.bankappspringdatajpa.monitoring;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(OutputCaptureExtension.class)
+class SlowQueryListenerTest {
+
+    private static final String UPDATE = "update bank_account set balance=balance+?,version=version+1 where account_number=?";
+    private static final String SELECT = "select ba1_0.account_number,ba1_0.balance from bank_account ba1_0 where ba1_0.account_number=?";
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    SlowQueryListener listener = new SlowQueryListener(() -> meterRegistry, 100);
+
+    @Test
+    void everyExecutionIsTimedPerStatement() {
+        listener.afterQuery(execution(5), List.of(new QueryInfo(UPDATE)));
+        listener.afterQuery(execution(7), List.of(new QueryInfo(UPDATE)));
+        listener.afterQuery(execution(1), List.of(new QueryInfo(SELECT)));
+
+        assertEquals(2, meterRegistry.get("bank.db.query").tag("statement", "update bank_account").timer().count());
+        assertEquals(1, meterRegistry.get("bank.db.query").tag("statement", "select bank_account").timer().count());
+    }
+
+    @Test
+    void onlySlowExecutionsAreLogged(CapturedOutput output) {
+        listener.afterQuery(execution(5), List.of(new QueryInfo(SELECT)));
+        assertFalse(output.getOut().contains("slow_query"));
+
+        listener.afterQuery(execution(250), List.of(new QueryInfo(UPDATE)));
+        assertTrue(output.getOut().contains("slow_query elapsed_ms=250 statement=\"update bank_account\""));
+    }
+
+    @Test
+    void aBatchIsOneExecution(CapturedOutput output) {
+        ExecutionInfo batch = execution(300);
+        batch.setBatch(true);
+        batch.setBatchSize(50);
+        List<QueryInfo> queries = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            queries.add(new QueryInfo(UPDATE));
+        }
+
+        listener.afterQuery(batch, queries);
+
+        Timer timer = meterRegistry.get("bank.db.query").tags("statement", "update bank_account", "batch", "true").timer();
+        assertEquals(1, timer.count());
+        assertEquals(300, timer.totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(1, output.getOut().split("slow_query", -1).length - 1);
+        assertTrue(output.getOut().contains("batch=true batch_size=50 statements=50"));
+    }
+
+    @Test
+    void fingerprintKeepsOperationAndTable() {
+        assertEquals("insert account_transaction",
+                SlowQueryListener.fingerprint("insert into account_transaction (amount,date) values (?,?)"));
+        assertEquals("delete bank_account", SlowQueryListener.fingerprint("DELETE FROM bank_account WHERE account_number=?"));
+        assertEquals("commit", SlowQueryListener.fingerprint("commit"));
+    }
+
+    private static ExecutionInfo execution(long elapsedMillis) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setElapsedTime(elapsedMillis);
+        executionInfo.setSuccess(true);
+        return executionInfo;
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.rbi.bankappspringdatajpa.outbox;
+
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionRequestDto;
+import com.rbi.bankappspringdatajpa.dto.TransferRequestDto;
+import com.rbi.bankappspringdatajpa.exception.InsufficientBalanceException;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.model.OutboxEvent;
+import com.rbi.bankappspringdatajpa.repository.AccountTransactionRepo;
+import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import com.rbi.bankappspringdatajpa.repository.OutboxEventRepo;
+import com.rbi.bankappspringdatajpa.service.BankAccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// the scheduled relay is pushed out so that the test decides when the outbox is drained
+@SpringBootTest(properties = "account.outbox.poll_interval=PT1H")
+@RecordApplicationEvents
+class OutboxRelayTest {
+
+    private static final String ACCOUNT_NUMBER = "OUTBOX000001";
+    private static final String OTHER_ACCOUNT_NUMBER = "OUTBOX000002";
+
+    @Autowired
+    BankAccountService service;
+
+    @Autowired
+    OutboxRelay relay;
+
+    @Autowired
+    OutboxEventRepo outboxRepo;
+
+    @Autowired
+    BankAccountRepo accountRepo;
+
+    @Autowired
+    AccountTransactionRepo transactionRepo;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    ApplicationEvents applicationEvents;
+
+    @BeforeEach
+    void setUp() {
+        relay.relay();
+        service.createAccount(new BankAccount(ACCOUNT_NUMBER, "Outbox", 5000_00, "Current", null));
+        service.createAccount(new BankAccount(OTHER_ACCOUNT_NUMBER, "Outbox", 5000_00, "Current", null));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        outboxRepo.deleteAllInBatch();
+        transactionRepo.deleteAllInBatch();
+        accountRepo.deleteAllById(List.of(ACCOUNT_NUMBER, OTHER_ACCOUNT_NUMBER));
+    }
+
+    @Test
+    void committedTransactionsAreRelayedOnce() {
+        applicationEvents.clear();
+        double publishedBefore = meterRegistry.get("bank.outbox.published").counter().count();
+        service.deposit(new AccountTransactionRequestDto(ACCOUNT_NUMBER, 250_00));
+        service.transfer(new TransferRequestDto(ACCOUNT_NUMBER, OTHER_ACCOUNT_NUMBER, 100_00));
+        assertEquals(3, outboxRepo.count());
+
+        assertEquals(3, relay.relay());
+
+        List<OutboxEvent> events = applicationEvents.stream(OutboxEvent.class).toList();
+        assertEquals(3, events.size());
+        assertTrue(events.get(0).getPayload().contains("\"amount\":250.00"));
+        assertEquals(0, outboxRepo.count());
+        assertEquals(3, meterRegistry.get("bank.outbox.published").counter().count() - publishedBefore);
+        assertEquals(0, relay.relay());
+    }
+
+    @Test
+    void rolledBackTransactionsLeaveNoEvent() {
+        assertThrows(InsufficientBalanceException.class, () -> service.withdraw(ACCOUNT_NUMBER, 4500_00));
+
+        assertEquals(0, outboxRepo.count());
+    }
+
+    @Test
+    void fileSinkAppendsOneLinePerEvent(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("events.ndjson");
+        FileOutboxPublisher publisher = new FileOutboxPublisher(file);
+
+        publisher.publish(List.of(new OutboxEvent(1, TransactionOutbox.TRANSACTION_CREATED, ACCOUNT_NUMBER, "{\"a\":1}", Instant.now())));
+        publisher.publish(List.of(new OutboxEvent(2, TransactionOutbox.TRANSACTION_CREATED, ACCOUNT_NUMBER, "{\"a\":2}", Instant.now())));
+
+        assertEquals(List.of("{\"a\":1}", "{\"a\":2}"), Files.readAllLines(file));
+    }
+
+}
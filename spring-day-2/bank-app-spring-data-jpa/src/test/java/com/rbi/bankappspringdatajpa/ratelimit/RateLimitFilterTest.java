@@ -0,0 +1,146 @@
+package com.rbi.bankappspringdatajpa.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Buckets refill at one token per 100 s, so nothing refills while a test runs. The buckets live as long as the
+// context, every test uses its own clients and accounts.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rate-limit",
+        "account.rate_limit.enabled=true",
+        "account.rate_limit.client_header=X-Client-Id",
+        "account.rate_limit.idle_timeout=PT1H",
+        "account.rate_limit.rules[0].name=withdraw",
+        "account.rate_limit.rules[0].method=PATCH",
+        "account.rate_limit.rules[0].path=/api/v1/accounts/{accountNumber}/withdraw/{amount}",
+        "account.rate_limit.rules[0].per_client.capacity=3",
+        "account.rate_limit.rules[0].per_client.per_second=0.01",
+        "account.rate_limit.rules[0].per_account.capacity=2",
+        "account.rate_limit.rules[0].per_account.per_second=0.01",
+        "account.rate_limit.rules[1].name=default",
+        "account.rate_limit.rules[1].path=/api/v1/**",
+        "account.rate_limit.rules[1].per_client.capacity=2",
+        "account.rate_limit.rules[1].per_client.per_second=0.01"})
+@AutoConfigureMockMvc
+class RateLimitFilterTest {
+
+    private static final ResultMatcher NOT_THROTTLED =
+            result -> assertNotEquals(429, result.getResponse().getStatus(), "throttled");
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void accountLimitAppliesAcrossClients() throws Exception {
+        double throttledBefore = throttled("withdraw", "account");
+
+        mockMvc.perform(withdraw("RATE00000001", "client-a")).andExpect(NOT_THROTTLED);
+        mockMvc.perform(withdraw("RATE00000001", "client-b")).andExpect(NOT_THROTTLED);
+        mockMvc.perform(withdraw("RATE00000001", "client-c"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.detail").value("Too many requests for this account, retry in 100 s"));
+        // other accounts are not affected
+        mockMvc.perform(withdraw("RATE00000002", "client-c")).andExpect(NOT_THROTTLED);
+
+        assertEquals(1, throttled("withdraw", "account") - throttledBefore);
+    }
+
+    @Test
+    void clientLimitLeavesOtherClientsAlone() throws Exception {
+        double throttledBefore = throttled("default", "client");
+
+        mockMvc.perform(clientGet("client-d")).andExpect(NOT_THROTTLED);
+        mockMvc.perform(clientGet("client-d")).andExpect(NOT_THROTTLED);
+        mockMvc.perform(clientGet("client-d"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "100"))
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(429))
+                .andExpect(jsonPath("$.rule").value("default"))
+                .andExpect(jsonPath("$.detail").value("Too many requests for this client, retry in 100 s"));
+        mockMvc.perform(clientGet("client-e")).andExpect(NOT_THROTTLED);
+
+        assertEquals(1, throttled("default", "client") - throttledBefore);
+    }
+
+    @Test
+    void firstMatchingRuleApplies() throws Exception {
+        // withdrawals of client-f go through the withdraw rule with its capacity of 3, not the default rule
+        mockMvc.perform(withdraw("RATE00000003", "client-f")).andExpect(NOT_THROTTLED);
+        mockMvc.perform(withdraw("RATE00000004", "client-f")).andExpect(NOT_THROTTLED);
+        mockMvc.perform(withdraw("RATE00000005", "client-f")).andExpect(NOT_THROTTLED);
+        mockMvc.perform(withdraw("RATE00000006", "client-f"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.rule").value("withdraw"));
+        // and leave the default bucket of client-f alone
+        mockMvc.perform(clientGet("client-f")).andExpect(NOT_THROTTLED);
+    }
+
+    @Test
+    void concurrentAcquiresTakeNoMoreThanTheCapacity() throws Exception {
+        TokenBucket bucket = new TokenBucket(50, 1, 0);
+        AtomicInteger taken = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 200; i++) {
+            executor.submit(() -> {
+                start.await();
+                if (bucket.tryAcquire(0) == 0) {
+                    taken.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(50, taken.get());
+        // one token per second refills
+        assertEquals(1_000_000_000L, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(1_000_000_000L));
+    }
+
+    private static MockHttpServletRequestBuilder withdraw(String accountNumber, String client) {
+        return patch("/api/v1/accounts/{accountNumber}/withdraw/{amount}", accountNumber, "1.00")
+                .header("X-Client-Id", client);
+    }
+
+    private static MockHttpServletRequestBuilder clientGet(String client) {
+        return get("/api/v1/accounts/{accountNumber}", "RATE00000099").header("X-Client-Id", client);
+    }
+
+    private double throttled(String rule, String scope) {
+        Counter counter = meterRegistry.find(RateLimitFilter.THROTTLED_METRIC).tags("rule", rule, "scope", scope)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.rbi.bankappspringdatajpa.repository;
+
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionResponseDto;
+import com.rbi.bankappspringdatajpa.model.AccountTransaction;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.model.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class AccountTransactionRepoTest {
+
+    private static final LocalDate FROM = LocalDate.of(2025, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2025, 12, 31);
+
+    @Autowired
+    BankAccountRepo accountRepo;
+
+    @Autowired
+    AccountTransactionRepo transactionRepo;
+
+    @BeforeEach
+    void setUp() {
+        BankAccount account = accountRepo.save(new BankAccount("123456789", "John", 2000, "Savings", null));
+        BankAccount other = accountRepo.save(new BankAccount("223456789", "Jane", 2000, "Savings", null));
+        long id = 1;
+        for (int day = 1; day <= 5; day++) {
+            // two postings share the same date and time, the id breaks the tie
+            for (int i = 0; i < 2; i++) {
+                transactionRepo.save(new AccountTransaction(id++, LocalDate.of(2025, 2, day), LocalTime.NOON,
+                        100, TransactionType.CREDIT, account));
+            }
+            transactionRepo.save(new AccountTransaction(id++, LocalDate.of(2025, 2, day), LocalTime.NOON,
+                    100, TransactionType.CREDIT, other));
+        }
+    }
+
+    @Test
+    void statementPagesCoverEveryTransactionOnceNewestFirst() {
+        List<AccountTransactionResponseDto> all = new ArrayList<>();
+        List<AccountTransactionResponseDto> page = transactionRepo.findStatement("123456789", FROM, TO, Limit.of(3));
+        while (!page.isEmpty()) {
+            all.addAll(page);
+            AccountTransactionResponseDto last = page.get(page.size() - 1);
+            page = transactionRepo.findStatementAfter("123456789", FROM, TO,
+                    last.date(), last.time(), last.transactionId(), Limit.of(3));
+        }
+
+        assertEquals(10, all.size());
+        assertEquals(List.of(14L, 13L, 11L, 10L, 8L, 7L, 5L, 4L, 2L, 1L),
+                all.stream().map(AccountTransactionResponseDto::transactionId).toList());
+    }
+
+    @Test
+    void statementIsLimitedToTheDateRange() {
+        List<AccountTransactionResponseDto> page = transactionRepo.findStatement("123456789",
+                LocalDate.of(2025, 2, 2), LocalDate.of(2025, 2, 3), Limit.of(50));
+
+        assertEquals(4, page.size());
+        assertEquals(LocalDate.of(2025, 2, 3), page.get(0).date());
+    }
+
+}
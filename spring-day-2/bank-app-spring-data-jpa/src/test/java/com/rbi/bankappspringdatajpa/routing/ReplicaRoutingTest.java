@@ -0,0 +1,164 @@
+package com.rbi.bankappspringdatajpa.routing;
+
+import com.rbi.bankappspringdatajpa.dto.AccountResponseDto;
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionRequestDto;
+import com.rbi.bankappspringdatajpa.config.CacheConfig;
+import com.rbi.bankappspringdatajpa.exception.DuplicateRecordException;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.service.BankAccountService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Two H2 databases without replication between them. replicate() copies the primary over, until the next call the
+// replica is as far behind as the test wants it to be.
+@SpringBootTest(properties = {
+        "account.replica.enabled=true",
+        "account.replica.read_your_writes_window=PT1M",
+        "spring.datasource.url=jdbc:h2:mem:routing-primary",
+        "spring.datasource.replica.url=jdbc:h2:mem:routing-replica",
+        "spring.datasource.replica.username=sa",
+        "spring.datasource.replica.password="})
+class ReplicaRoutingTest {
+
+    private static final AtomicInteger ACCOUNTS = new AtomicInteger();
+
+    @Autowired
+    BankAccountService service;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    DataSource replicaDataSource;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    JdbcTemplate primary;
+    JdbcTemplate replica;
+    String accountNumber;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        accountNumber = String.format("ROUTING%04d", ACCOUNTS.incrementAndGet());
+        // inserted past the service, so the account is not one this instance has written
+        insertAccount(accountNumber, "5000.00");
+        replicate();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        cacheManager.getCache(CacheConfig.ACCOUNTS_CACHE).clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        primary.update("delete from daily_account_summary where account_number = ?", accountNumber);
+        primary.update("delete from account_transaction where account_account_number = ?", accountNumber);
+        primary.update("delete from bank_account where account_number = ?", accountNumber);
+    }
+
+    @Test
+    void readOnlyTransactionsRunOnTheReplica() {
+        primary.update("update bank_account set balance = 9000.00 where account_number = ?", accountNumber);
+
+        assertEquals(5000_00, service.getAccountDetails(accountNumber).balance());
+        assertEquals(5000_00, findOnPage(accountNumber).balance());
+        // nothing read from the replica was put into the second-level cache or the account cache
+        assertFalse(entityManagerFactory.getCache().contains(BankAccount.class, accountNumber));
+        assertNull(cacheManager.getCache(CacheConfig.ACCOUNTS_CACHE).get(accountNumber));
+    }
+
+    @Test
+    void readOnlyTransactionsOnThePrimaryFillTheCaches() {
+        service.deposit(new AccountTransactionRequestDto(accountNumber, 100_00));
+        entityManagerFactory.getCache().evict(BankAccount.class, accountNumber);
+
+        assertEquals(5100_00, service.getAccountDetails(accountNumber).balance());
+        assertTrue(entityManagerFactory.getCache().contains(BankAccount.class, accountNumber));
+        assertNotNull(cacheManager.getCache(CacheConfig.ACCOUNTS_CACHE).get(accountNumber));
+    }
+
+    @Test
+    void accountsWrittenThroughThisInstanceAreReadFromThePrimary() {
+        service.deposit(new AccountTransactionRequestDto(accountNumber, 100_00));
+
+        assertEquals(new BigDecimal("5100.00"), balance(primary, accountNumber));
+        assertEquals(new BigDecimal("5000.00"), balance(replica, accountNumber));
+        // the account pages are not tied to one account and stay on the replica
+        assertEquals(5000_00, findOnPage(accountNumber).balance());
+        assertEquals(5100_00, service.getAccountDetails(accountNumber).balance());
+        assertEquals(1, service.getTransactions(accountNumber, null, null, null, 10).transactions().size());
+        assertEquals(100_00, service.getDailySummary(accountNumber, null, null).credits());
+    }
+
+    @Test
+    void duplicateChecksRunOnThePrimary() {
+        String created = accountNumber + "X";
+        insertAccount(created, "10.00");
+        try {
+            assertThrows(DuplicateRecordException.class,
+                    () -> service.createAccount(new BankAccount(created, "Routing", 10_00, "Savings", null)));
+        } finally {
+            primary.update("delete from bank_account where account_number = ?", created);
+        }
+    }
+
+    @Test
+    void accountsAreDeletedFromThePrimary() {
+        String created = accountNumber + "D";
+        service.createAccount(new BankAccount(created, "Routing", 10_00, "Savings", null));
+
+        // the replica has not seen the account yet, nor has the second-level cache of another instance
+        entityManagerFactory.getCache().evict(BankAccount.class, created);
+        service.removeAccount(created);
+        assertEquals(0, primary.queryForObject("select count(*) from bank_account where account_number = ?",
+                Integer.class, created));
+    }
+
+    private void insertAccount(String number, String balance) {
+        primary.update("insert into bank_account (account_number, account_holder_name, balance, account_type, version) "
+                + "values (?, 'Routing', ?, 'Savings', 0)", number, new BigDecimal(balance));
+    }
+
+    private AccountResponseDto findOnPage(String number) {
+        List<AccountResponseDto> accounts = service.getAccounts(number.substring(0, number.length() - 1), 1000).accounts();
+        return accounts.stream().filter(account -> account.accountNumber().equals(number)).findFirst().orElseThrow();
+    }
+
+    private static BigDecimal balance(JdbcTemplate database, String number) {
+        return database.queryForObject("select balance from bank_account where account_number = ?", BigDecimal.class, number);
+    }
+
+    // the replica becomes a copy of the primary as of now
+    private void replicate() {
+        List<String> script = primary.queryForList("script nopasswords", String.class);
+        replica.execute("drop all objects");
+        script.forEach(replica::execute);
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.rbi.bankappspringdatajpa.service;
+
+import com.rbi.bankappspringdatajpa.config.CacheConfig;
+import com.rbi.bankappspringdatajpa.dto.AccountResponseDto;
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionRequestDto;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.repository.AccountTransactionRepo;
+import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@SpringBootTest
+class BankAccountCacheTest {
+
+    private static final String ACCOUNT_NUMBER = "CACHE0000001";
+
+    @Autowired
+    BankAccountService service;
+
+    @Autowired
+    BankAccountRepo accountRepo;
+
+    @Autowired
+    AccountTransactionRepo transactionRepo;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = cacheManager.getCache(CacheConfig.ACCOUNTS_CACHE);
+        cache.clear();
+        service.createAccount(new BankAccount(ACCOUNT_NUMBER, "Cache", 5000_00, "Savings", null));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        transactionRepo.deleteAllInBatch();
+        accountRepo.deleteById(ACCOUNT_NUMBER);
+    }
+
+    @Test
+    void repeatedLookupsAreServedFromTheCache() {
+        double hitsBefore = cacheHits();
+
+        AccountResponseDto first = service.getAccountDetails(ACCOUNT_NUMBER);
+        AccountResponseDto second = service.getAccountDetails(ACCOUNT_NUMBER);
+
+        assertSame(first, second);
+        assertEquals(1.0, cacheHits() - hitsBefore);
+        assertNotNull(cache.get(ACCOUNT_NUMBER));
+    }
+
+    @Test
+    void balanceChangesEvictTheCachedAccount() {
+        service.getAccountDetails(ACCOUNT_NUMBER);
+
+        service.deposit(new AccountTransactionRequestDto(ACCOUNT_NUMBER, 500_00));
+        assertNull(cache.get(ACCOUNT_NUMBER));
+        assertEquals(5500_00, service.getAccountDetails(ACCOUNT_NUMBER).balance());
+
+        service.withdraw(ACCOUNT_NUMBER, 200_00);
+        assertNull(cache.get(ACCOUNT_NUMBER));
+        assertEquals(5300_00, service.getAccountDetails(ACCOUNT_NUMBER).balance());
+    }
+
+    private double cacheHits() {
+        return meterRegistry.get("cache.gets").tag("cache", CacheConfig.ACCOUNTS_CACHE)
+                .tag("result", "hit").functionCounter().count();
+    }
+
+}
@@ -0,0 +1,160 @@
+package com.rbi.bankappspringdatajpa.service;
+
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionRequestDto;
+import com.rbi.bankappspringdatajpa.dto.TransferRequestDto;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.repository.AccountTransactionRepo;
+import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "account.optimistic_retry.max_attempts=20")
+class BankAccountConcurrencyStressTest {
+
+    private static final String ACCOUNT_NUMBER = "STRESS000001";
+    private static final String OTHER_ACCOUNT_NUMBER = "STRESS000002";
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 50;
+    private static final long INITIAL_BALANCE = 1_000_000_00;
+
+    @Autowired
+    BankAccountService service;
+
+    @Autowired
+    BankAccountRepo accountRepo;
+
+    @Autowired
+    AccountTransactionRepo transactionRepo;
+
+    private long transactionsBefore;
+
+    @AfterEach
+    void cleanUp() {
+        // the service is shared with the other tests in this context
+        ReflectionTestUtils.setField(service, "concurrencyMode", BalanceConcurrencyMode.ATOMIC);
+        transactionRepo.deleteAllInBatch();
+        accountRepo.deleteAllById(List.of(ACCOUNT_NUMBER, OTHER_ACCOUNT_NUMBER));
+    }
+
+    @ParameterizedTest
+    @EnumSource(BalanceConcurrencyMode.class)
+    void concurrentDepositsAndWithdrawalsLoseNoUpdates(BalanceConcurrencyMode mode) throws Exception {
+        ReflectionTestUtils.setField(service, "concurrencyMode", mode);
+        service.createAccount(new BankAccount(ACCOUNT_NUMBER, "Stress", INITIAL_BALANCE, "Savings", null));
+        transactionsBefore = transactionRepo.count();
+
+        AtomicInteger deposits = new AtomicInteger();
+        AtomicInteger withdrawals = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int op = 0; op < OPERATIONS_PER_THREAD; op++) {
+                    try {
+                        if (op % 2 == 0) {
+                            service.deposit(new AccountTransactionRequestDto(ACCOUNT_NUMBER, 2));
+                            deposits.incrementAndGet();
+                        } else {
+                            service.withdraw(ACCOUNT_NUMBER, 1);
+                            withdrawals.incrementAndGet();
+                        }
+                    } catch (OptimisticLockingFailureException ex) {
+                        // retries exhausted, the operation was rolled back and is reported to the caller
+                        conflicts.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - began;
+        executor.shutdown();
+
+        int total = THREADS * OPERATIONS_PER_THREAD;
+        int succeeded = deposits.get() + withdrawals.get();
+        System.out.printf("%s: %d operations in %d ms (%.0f ops/s), %d gave up after retries%n",
+                mode, succeeded, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                succeeded / (elapsedNanos / 1e9), conflicts.get());
+
+        assertEquals(total, succeeded + conflicts.get());
+        if (mode != BalanceConcurrencyMode.OPTIMISTIC) {
+            assertEquals(0, conflicts.get());
+        }
+        // every acknowledged operation is reflected in the balance, none overwritten by a concurrent one
+        assertEquals(INITIAL_BALANCE + 2L * deposits.get() - withdrawals.get(),
+                service.getAccountDetails(ACCOUNT_NUMBER).balance());
+        assertEquals(succeeded, transactionRepo.count() - transactionsBefore);
+    }
+
+    @ParameterizedTest
+    @EnumSource(BalanceConcurrencyMode.class)
+    void opposingTransfersDoNotDeadlock(BalanceConcurrencyMode mode) throws Exception {
+        ReflectionTestUtils.setField(service, "concurrencyMode", mode);
+        service.createAccount(new BankAccount(ACCOUNT_NUMBER, "Stress", INITIAL_BALANCE, "Savings", null));
+        service.createAccount(new BankAccount(OTHER_ACCOUNT_NUMBER, "Stress", INITIAL_BALANCE, "Savings", null));
+        transactionsBefore = transactionRepo.count();
+
+        AtomicInteger transfers = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            // half of the threads move money one way, the other half the other way
+            TransferRequestDto transfer = i % 2 == 0
+                    ? new TransferRequestDto(ACCOUNT_NUMBER, OTHER_ACCOUNT_NUMBER, 3)
+                    : new TransferRequestDto(OTHER_ACCOUNT_NUMBER, ACCOUNT_NUMBER, 1);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int op = 0; op < OPERATIONS_PER_THREAD; op++) {
+                    try {
+                        service.transfer(transfer);
+                        transfers.incrementAndGet();
+                    } catch (OptimisticLockingFailureException ex) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        if (mode != BalanceConcurrencyMode.OPTIMISTIC) {
+            assertEquals(0, conflicts.get());
+        }
+        // money only moves between the two accounts
+        assertEquals(2 * INITIAL_BALANCE, service.getAccountDetails(ACCOUNT_NUMBER).balance()
+                + service.getAccountDetails(OTHER_ACCOUNT_NUMBER).balance());
+        assertEquals(2L * transfers.get(), transactionRepo.count() - transactionsBefore);
+    }
+
+}
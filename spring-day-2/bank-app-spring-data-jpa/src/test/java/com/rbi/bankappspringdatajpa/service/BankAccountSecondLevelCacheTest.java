@@ -0,0 +1,153 @@
+package com.rbi.bankappspringdatajpa.service;
+
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.repository.AccountTransactionRepo;
+import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import com.rbi.bankappspringdatajpa.repository.DailyAccountSummaryRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BankAccountSecondLevelCacheTest {
+
+    // A deleted entry stays locked in the region at its last version until it expires, so an account re-created under
+    // the same number would not be cached again. Every test gets its own account.
+    private static final AtomicInteger ACCOUNTS = new AtomicInteger();
+
+    @Autowired
+    BankAccountService service;
+
+    @Autowired
+    BankAccountRepo accountRepo;
+
+    @Autowired
+    AccountTransactionRepo transactionRepo;
+
+    @Autowired
+    DailyAccountSummaryRepo summaryRepo;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    Statistics statistics;
+
+    String accountNumber;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        accountNumber = String.format("L2CACHE%05d", ACCOUNTS.incrementAndGet());
+        service.createAccount(new BankAccount(accountNumber, "Second level", 5000_00, "Savings", null));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        summaryRepo.deleteAllInBatch();
+        transactionRepo.deleteAllInBatch();
+        accountRepo.deleteById(accountNumber);
+    }
+
+    @Test
+    void findByIdIsServedFromTheRegion() throws InterruptedException {
+        loadIntoRegion();
+        long hitsBefore = region().getHitCount();
+        long missesBefore = region().getMissCount();
+
+        assertEquals(5000_00, accountRepo.findById(accountNumber).orElseThrow().getBalance());
+
+        assertEquals(hitsBefore + 1, region().getHitCount());
+        assertEquals(missesBefore, region().getMissCount());
+        assertTrue(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tags("region", BankAccount.CACHE_REGION, "result", "hit").functionCounter().count() > 0);
+    }
+
+    @Test
+    void balanceUpdatesAreNotHiddenByTheRegion() {
+        accountRepo.findById(accountNumber);
+
+        // the native update runs before the account is read back in the same transaction
+        assertEquals(4700_00, service.withdraw(accountNumber, 300_00).getBalance());
+        assertEquals(4700_00, accountRepo.findById(accountNumber).orElseThrow().getBalance());
+    }
+
+    @Test
+    void balanceUpdatesInvalidateOnlyTheirAccount() throws InterruptedException {
+        String otherAccount = "L2OTHER" + accountNumber.substring("L2CACHE".length());
+        service.createAccount(new BankAccount(otherAccount, "Second level", 5000_00, "Savings", null));
+        try {
+            accountRepo.findById(otherAccount);
+            accountRepo.existsByAccountNumber(otherAccount);
+            loadIntoRegion();
+
+            service.withdraw(accountNumber, 300_00);
+            long hitsBefore = region().getHitCount();
+            long queryHitsBefore = statistics.getQueryCacheHitCount();
+
+            assertEquals(5000_00, accountRepo.findById(otherAccount).orElseThrow().getBalance());
+            assertTrue(accountRepo.existsByAccountNumber(otherAccount));
+            assertEquals(4700_00, accountRepo.findById(accountNumber).orElseThrow().getBalance());
+
+            assertEquals(hitsBefore + 1, region().getHitCount());
+            assertEquals(queryHitsBefore + 1, statistics.getQueryCacheHitCount());
+        } finally {
+            accountRepo.deleteById(otherAccount);
+        }
+    }
+
+    @Test
+    void nativeUpdatesOfOtherTablesKeepTheRegion() throws InterruptedException {
+        loadIntoRegion();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            summaryRepo.insertEmpty(accountNumber, LocalDate.now());
+            summaryRepo.add(accountNumber, LocalDate.now(), 1, 1, 0, 0);
+        });
+        long hitsBefore = region().getHitCount();
+
+        accountRepo.findById(accountNumber);
+
+        assertEquals(hitsBefore + 1, region().getHitCount());
+    }
+
+    @Test
+    void existenceChecksUseTheQueryCache() {
+        accountRepo.existsByAccountNumber(accountNumber);
+        long hitsBefore = statistics.getQueryCacheHitCount();
+
+        assertTrue(accountRepo.existsByAccountNumber(accountNumber));
+
+        assertEquals(hitsBefore + 1, statistics.getQueryCacheHitCount());
+    }
+
+    // a read-write entry is only readable by transactions that start after it was put, a millisecond later at the least
+    private void loadIntoRegion() throws InterruptedException {
+        accountRepo.findById(accountNumber);
+        Thread.sleep(5);
+    }
+
+    private CacheRegionStatistics region() {
+        return statistics.getDomainDataRegionStatistics(BankAccount.CACHE_REGION);
+    }
+
+}
@@ -1,16 +1,35 @@
 package com.rbi.bankappspringdatajpa.service;
 
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionRequestDto;
+import com.rbi.bankappspringdatajpa.dto.BatchTransactionResponseDto;
+import com.rbi.bankappspringdatajpa.dto.TransferRequestDto;
+import com.rbi.bankappspringdatajpa.dto.TransferResponseDto;
+import com.rbi.bankappspringdatajpa.exception.InvalidRequestException;
+import com.rbi.bankappspringdatajpa.exception.InsufficientBalanceException;
 import com.rbi.bankappspringdatajpa.exception.RecordNotFoundException;
 import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.model.TransactionType;
+import com.rbi.bankappspringdatajpa.outbox.TransactionOutbox;
+import com.rbi.bankappspringdatajpa.repository.AccountTransactionRepo;
 import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import com.rbi.bankappspringdatajpa.repository.DailyAccountSummaryRepo;
+import com.rbi.bankappspringdatajpa.repository.DailySummaryStripeRepo;
+import com.rbi.bankappspringdatajpa.routing.ReplicaLagGuard;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -21,6 +40,36 @@ class BankAccountServiceImplTest {
     @Mock
     BankAccountRepo repo;
 
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    TransactionIdGenerator transactionIdGenerator;
+
+    @Mock
+    EntityManager entityManager;
+
+    @Mock
+    AccountTransactionRepo transactionRepo;
+
+    @Mock
+    TransactionOutbox transactionOutbox;
+
+    @Mock
+    DailySummaryUpdater dailySummaryUpdater;
+
+    @Mock
+    DailyAccountSummaryRepo summaryRepo;
+
+    @Mock
+    DailySummaryStripeRepo summaryStripeRepo;
+
+    @Mock
+    BalanceStripes balanceStripes;
+
+    @Spy
+    ReplicaLagGuard replicaLagGuard = new ReplicaLagGuard(false, Duration.ofSeconds(5), 100);
+
     @InjectMocks
     BankAccountServiceImpl service;
 
@@ -34,11 +83,11 @@ class BankAccountServiceImplTest {
 
         BankAccount account = new BankAccount("123456789","John",2000,"Savings",null);
 
-        Mockito.when(repo.findByAccountNumber("123456789")).thenReturn(Optional.of(account));
+        Mockito.when(repo.findById("123456789")).thenReturn(Optional.of(account));
 
         Assertions.assertDoesNotThrow(()->service.getAccountDetails("123456789"));
 
-        Mockito.verify(repo,Mockito.times(1)).findByAccountNumber("123456789");
+        Mockito.verify(repo,Mockito.times(1)).findById("123456789");
 
 
     }
@@ -48,12 +97,89 @@ class BankAccountServiceImplTest {
 
         BankAccount account = new BankAccount("123456789","John",2000,"Savings",null);
 
-        Mockito.when(repo.findByAccountNumber("123456789")).thenReturn(Optional.empty());
+        Mockito.when(repo.findById("123456789")).thenReturn(Optional.empty());
 
         Assertions.assertThrows(RecordNotFoundException.class,()->service.getAccountDetails("123456789"));
 
-        Mockito.verify(repo,Mockito.times(1)).findByAccountNumber("123456789");
+        Mockito.verify(repo,Mockito.times(1)).findById("123456789");
+
+
+    }
+
+    @Test
+    void withdrawBelowMinBalanceTest() {
+
+        Mockito.when(repo.debit("123456789", 1500, 0)).thenReturn(0);
+        Mockito.when(repo.existsByAccountNumber("123456789")).thenReturn(true);
+
+        RuntimeException ex = Assertions.assertThrows(InsufficientBalanceException.class, () -> service.withdraw("123456789", 1500));
+        Assertions.assertEquals("Insufficient account balance", ex.getMessage());
+
+        Mockito.verify(repo, Mockito.never()).save(Mockito.any());
+
+    }
+
+    @Test
+    void withdrawNegativeAmountTest() {
+
+        Assertions.assertThrows(InvalidRequestException.class, () -> service.withdraw("123456789", -500));
+
+        Mockito.verifyNoInteractions(repo);
+
+    }
+
+    @Test
+    void transactionBatchUpdatesEachAccountOnceTest() {
+
+        Mockito.when(entityManager.unwrap(Session.class)).thenReturn(Mockito.mock(Session.class));
+        Mockito.when(repo.credit("123456789", 150)).thenReturn(1);
+        Mockito.when(repo.debit("223456789", 30, 0)).thenReturn(1);
+
+        BatchTransactionResponseDto response = service.applyTransactionBatch(List.of(
+                new AccountTransactionRequestDto("123456789", 100),
+                new AccountTransactionRequestDto("223456789", -50),
+                new AccountTransactionRequestDto("123456789", 50),
+                new AccountTransactionRequestDto("223456789", 20)));
+
+        Assertions.assertEquals(new BatchTransactionResponseDto(4, 2, 170, 50), response);
+        Mockito.verify(repo, Mockito.times(1)).credit(Mockito.anyString(), Mockito.anyLong());
+        Mockito.verify(repo, Mockito.times(1)).debit(Mockito.anyString(), Mockito.anyLong(), Mockito.anyLong());
+        Mockito.verify(transactionIdGenerator, Mockito.times(4)).nextId();
+        Mockito.verify(transactionRepo, Mockito.times(1)).saveAll(Mockito.any());
+
+    }
+
+    @Test
+    void transferLocksAccountsInAccountNumberOrderTest() {
+
+        BankAccount from = new BankAccount("223456789","Jane",5000,"Savings",null);
+        Mockito.when(repo.credit("123456789", 500)).thenReturn(1);
+        Mockito.when(repo.debit("223456789", 500, 0)).thenReturn(1);
+        Mockito.when(repo.findCurrentByAccountNumber("223456789")).thenReturn(Optional.of(from));
+        Mockito.when(repo.getReferenceById("223456789")).thenReturn(from);
+        Mockito.when(repo.getReferenceById("123456789")).thenReturn(new BankAccount("123456789","John",2500,"Savings",null));
+
+        TransferResponseDto response = service.transfer(new TransferRequestDto("223456789", "123456789", 500));
+
+        // the receiving account sorts first, so it is updated first
+        InOrder inOrder = Mockito.inOrder(repo);
+        inOrder.verify(repo).credit("123456789", 500);
+        inOrder.verify(repo).debit("223456789", 500, 0);
+        Assertions.assertEquals(TransactionType.DEBIT, response.debit().type());
+        Assertions.assertEquals("223456789", response.debit().accountNumber());
+        Assertions.assertEquals(TransactionType.CREDIT, response.credit().type());
+        Assertions.assertEquals("123456789", response.credit().accountNumber());
+        Mockito.verify(transactionRepo, Mockito.times(1)).saveAll(Mockito.any());
+
+    }
+
+    @Test
+    void transferToSameAccountTest() {
+
+        Assertions.assertThrows(InvalidRequestException.class,
+                () -> service.transfer(new TransferRequestDto("123456789", "123456789", 500)));
 
+        Mockito.verifyNoInteractions(repo);
 
     }
 
@@ -0,0 +1,130 @@
+package com.rbi.bankappspringdatajpa.service;
+
+import com.rbi.bankappspringdatajpa.dto.AccountSummaryDto;
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionRequestDto;
+import com.rbi.bankappspringdatajpa.dto.DailySummaryDto;
+import com.rbi.bankappspringdatajpa.dto.TransferRequestDto;
+import com.rbi.bankappspringdatajpa.exception.InvalidRequestException;
+import com.rbi.bankappspringdatajpa.exception.RecordNotFoundException;
+import com.rbi.bankappspringdatajpa.model.AccountTransaction;
+import com.rbi.bankappspringdatajpa.model.TransactionType;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.model.DailyAccountSummary;
+import com.rbi.bankappspringdatajpa.repository.AccountTransactionRepo;
+import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import com.rbi.bankappspringdatajpa.repository.DailyAccountSummaryRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "account.ledger.compaction_interval=PT1H")
+class DailySummaryTest {
+
+    private static final String ACCOUNT_NUMBER = "SUMMARY00001";
+    private static final String OTHER_ACCOUNT_NUMBER = "SUMMARY00002";
+
+    @Autowired
+    BankAccountService service;
+
+    @Autowired
+    LedgerCompactor compactor;
+
+    @Autowired
+    DailySummaryRebuilder rebuilder;
+
+    @Autowired
+    TransactionIdGenerator transactionIdGenerator;
+
+    @Autowired
+    BankAccountRepo accountRepo;
+
+    @Autowired
+    AccountTransactionRepo transactionRepo;
+
+    @Autowired
+    DailyAccountSummaryRepo summaryRepo;
+
+    @BeforeEach
+    void setUp() {
+        service.createAccount(new BankAccount(ACCOUNT_NUMBER, "Summary", 5000_00, "Current", null));
+        service.createAccount(new BankAccount(OTHER_ACCOUNT_NUMBER, "Summary", 5000_00, "Current", null));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        ReflectionTestUtils.setField(service, "concurrencyMode", BalanceConcurrencyMode.ATOMIC);
+        summaryRepo.deleteAllInBatch();
+        transactionRepo.deleteAllInBatch();
+        accountRepo.deleteAllById(List.of(ACCOUNT_NUMBER, OTHER_ACCOUNT_NUMBER));
+    }
+
+    @Test
+    void transactionsAreAddedToTheDayTheyHappenOn() {
+        service.deposit(new AccountTransactionRequestDto(ACCOUNT_NUMBER, 700_00));
+        service.deposit(new AccountTransactionRequestDto(ACCOUNT_NUMBER, 50_25));
+        service.withdraw(ACCOUNT_NUMBER, 200_00);
+        service.transfer(new TransferRequestDto(ACCOUNT_NUMBER, OTHER_ACCOUNT_NUMBER, 1000_00));
+        service.applyTransactionBatch(List.of(
+                new AccountTransactionRequestDto(ACCOUNT_NUMBER, 10_00),
+                new AccountTransactionRequestDto(ACCOUNT_NUMBER, -5_00)));
+
+        AccountSummaryDto summary = service.getDailySummary(ACCOUNT_NUMBER, null, null);
+
+        assertEquals(new DailySummaryDto(LocalDate.now(), 760_25, 3, 1205_00, 3), summary.days().get(0));
+        assertEquals(1, summary.days().size());
+        assertEquals(760_25, summary.credits());
+        assertEquals(1205_00, summary.debits());
+        assertEquals(1000_00, service.getDailySummary(OTHER_ACCOUNT_NUMBER, null, null).credits());
+    }
+
+    @Test
+    void ledgerPostingsAreSummarizedWhenCompacted() {
+        ReflectionTestUtils.setField(service, "concurrencyMode", BalanceConcurrencyMode.LEDGER);
+        service.deposit(new AccountTransactionRequestDto(ACCOUNT_NUMBER, 700_00));
+        service.withdraw(ACCOUNT_NUMBER, 200_00);
+
+        assertTrue(service.getDailySummary(ACCOUNT_NUMBER, null, null).days().isEmpty());
+
+        compactor.compact();
+
+        assertEquals(new DailySummaryDto(LocalDate.now(), 700_00, 1, 200_00, 1),
+                service.getDailySummary(ACCOUNT_NUMBER, null, null).days().get(0));
+    }
+
+    @Test
+    void rebuildRecomputesClosedDaysFromTheTransactions() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        BankAccount account = accountRepo.getReferenceById(ACCOUNT_NUMBER);
+        transactionRepo.saveAll(List.of(
+                new AccountTransaction(transactionIdGenerator.nextId(), yesterday, LocalTime.NOON, 300_00, TransactionType.CREDIT, account),
+                new AccountTransaction(transactionIdGenerator.nextId(), yesterday, LocalTime.NOON, 40_00, TransactionType.DEBIT, account)));
+        // a stale row that the rebuild replaces
+        summaryRepo.save(new DailyAccountSummary(OTHER_ACCOUNT_NUMBER, yesterday, 1, 1, 1, 1));
+
+        assertEquals(1, rebuilder.rebuild(yesterday, yesterday));
+
+        assertEquals(List.of(new DailySummaryDto(yesterday, 300_00, 1, 40_00, 1)),
+                service.getDailySummary(ACCOUNT_NUMBER, yesterday, yesterday).days());
+        assertTrue(service.getDailySummary(OTHER_ACCOUNT_NUMBER, yesterday, yesterday).days().isEmpty());
+        assertThrows(InvalidRequestException.class, () -> rebuilder.rebuild(yesterday, LocalDate.now()));
+    }
+
+    @Test
+    void summaryRangeIsBounded() {
+        assertThrows(InvalidRequestException.class,
+                () -> service.getDailySummary(ACCOUNT_NUMBER, LocalDate.now().minusYears(2), LocalDate.now()));
+        assertThrows(RecordNotFoundException.class, () -> service.getDailySummary("SUMMARY99999", null, null));
+    }
+
+}
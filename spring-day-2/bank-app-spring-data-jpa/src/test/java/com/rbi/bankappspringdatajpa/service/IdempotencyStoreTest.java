@@ -0,0 +1,149 @@
+package com.rbi.bankappspringdatajpa.service;
+
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionRequestDto;
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionResponseDto;
+import com.rbi.bankappspringdatajpa.exception.IdempotencyKeyReuseException;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.model.IdempotencyRecord;
+import com.rbi.bankappspringdatajpa.model.TransactionType;
+import com.rbi.bankappspringdatajpa.repository.AccountTransactionRepo;
+import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import com.rbi.bankappspringdatajpa.repository.IdempotencyRecordRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "account.idempotency.cache_size=0")
+class IdempotencyStoreTest {
+
+    private static final String ACCOUNT_NUMBER = "IDEMPOTENT01";
+
+    @Autowired
+    BankAccountService service;
+
+    @Autowired
+    IdempotencyStore idempotencyStore;
+
+    @Autowired
+    BankAccountRepo accountRepo;
+
+    @Autowired
+    AccountTransactionRepo transactionRepo;
+
+    @Autowired
+    IdempotencyRecordRepo recordRepo;
+
+    @BeforeEach
+    void setUp() {
+        service.createAccount(new BankAccount(ACCOUNT_NUMBER, "Idempotent", 5000_00, "Savings", null));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        recordRepo.deleteAllInBatch();
+        transactionRepo.deleteAllInBatch();
+        accountRepo.deleteById(ACCOUNT_NUMBER);
+    }
+
+    // the in-memory cache is off here, so every repeat is answered from the table
+    @Test
+    void repeatedDepositIsAppliedOnce() {
+        AccountTransactionRequestDto deposit = new AccountTransactionRequestDto(ACCOUNT_NUMBER, 100_00);
+
+        AccountTransactionResponseDto first = service.deposit(deposit, "deposit-1");
+        AccountTransactionResponseDto repeat = service.deposit(deposit, "deposit-1");
+
+        assertEquals(first, repeat);
+        assertEquals(5100_00, accountRepo.findById(ACCOUNT_NUMBER).orElseThrow().getBalance());
+        assertEquals(1, transactionRepo.count());
+    }
+
+    @Test
+    void concurrentRepeatsAreAppliedOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Callable<BankAccount>> withdrawals = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            withdrawals.add(() -> service.withdraw(ACCOUNT_NUMBER, 300_00, "withdraw-1"));
+        }
+        List<Future<BankAccount>> results = executor.invokeAll(withdrawals);
+        executor.shutdown();
+
+        for (Future<BankAccount> result : results) {
+            // every caller sees the balance right after the one withdrawal
+            assertEquals(4700_00, result.get().getBalance());
+        }
+        assertEquals(4700_00, accountRepo.findById(ACCOUNT_NUMBER).orElseThrow().getBalance());
+        assertEquals(1, transactionRepo.count());
+    }
+
+    @Test
+    void repeatThatWouldFailNowGetsTheFirstResponse() {
+        BankAccount first = service.withdraw(ACCOUNT_NUMBER, 3500_00, "withdraw-2");
+
+        // a second withdrawal would take the balance below the minimum
+        assertEquals(first.getBalance(), service.withdraw(ACCOUNT_NUMBER, 3500_00, "withdraw-2").getBalance());
+        assertEquals(1500_00, accountRepo.findById(ACCOUNT_NUMBER).orElseThrow().getBalance());
+    }
+
+    @Test
+    void keyCannotBeReusedForADifferentRequest() {
+        service.deposit(new AccountTransactionRequestDto(ACCOUNT_NUMBER, 100_00), "deposit-2");
+
+        assertThrows(IdempotencyKeyReuseException.class,
+                () -> service.deposit(new AccountTransactionRequestDto(ACCOUNT_NUMBER, 200_00), "deposit-2"));
+        assertEquals(5100_00, accountRepo.findById(ACCOUNT_NUMBER).orElseThrow().getBalance());
+    }
+
+    @Test
+    void requestsOfAnyLengthAreRecorded() {
+        String request = "transfer " + "X".repeat(1000);
+        AccountTransactionResponseDto response = new AccountTransactionResponseDto(ACCOUNT_NUMBER, 1L,
+                LocalDate.of(2025, 1, 2), LocalTime.NOON, 100_00, TransactionType.CREDIT);
+
+        idempotencyStore.record("long-1", request, response);
+
+        assertEquals(64, recordRepo.findById("long-1").orElseThrow().getRequest().length());
+        assertEquals(response,
+                idempotencyStore.findRecorded("long-1", request, AccountTransactionResponseDto.class).orElseThrow());
+    }
+
+    @Test
+    void expiredKeyNotPurgedYetIsAppliedAgain() {
+        recordRepo.save(new IdempotencyRecord("deposit-4", "deposit", "{}", Instant.now().minusSeconds(60)));
+
+        service.deposit(new AccountTransactionRequestDto(ACCOUNT_NUMBER, 100_00), "deposit-4");
+
+        assertEquals(5100_00, accountRepo.findById(ACCOUNT_NUMBER).orElseThrow().getBalance());
+        assertTrue(recordRepo.findById("deposit-4").orElseThrow().getExpiresAt().isAfter(Instant.now()));
+    }
+
+    @Test
+    void expiredKeysArePurgedInBatches() {
+        Instant past = Instant.now().minusSeconds(60);
+        for (int i = 0; i < 2500; i++) {
+            recordRepo.save(new IdempotencyRecord("expired-" + i, "deposit", "{}", past));
+        }
+        service.deposit(new AccountTransactionRequestDto(ACCOUNT_NUMBER, 100_00), "deposit-3");
+
+        assertEquals(2500, idempotencyStore.purgeExpired());
+        assertEquals(1, recordRepo.count());
+        assertTrue(recordRepo.existsById("deposit-3"));
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.rbi.bankappspringdatajpa.service;
+
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionRequestDto;
+import com.rbi.bankappspringdatajpa.dto.TransferRequestDto;
+import com.rbi.bankappspringdatajpa.exception.InsufficientBalanceException;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.repository.AccountTransactionRepo;
+import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The scheduled run is pushed out so that the test decides when postings are compacted. Its own database keeps the
+// compactors of other cached test contexts away from its postings.
+@SpringBootTest(properties = {
+        "account.ledger.compaction_interval=PT1H",
+        "spring.datasource.url=jdbc:h2:mem:ledger-compactor"})
+class LedgerCompactorTest {
+
+    private static final String ACCOUNT_NUMBER = "LEDGER000001";
+    private static final String OTHER_ACCOUNT_NUMBER = "LEDGER000002";
+
+    @Autowired
+    BankAccountService service;
+
+    @Autowired
+    LedgerCompactor compactor;
+
+    @Autowired
+    BankAccountRepo accountRepo;
+
+    @Autowired
+    AccountTransactionRepo transactionRepo;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "concurrencyMode", BalanceConcurrencyMode.LEDGER);
+        service.createAccount(new BankAccount(ACCOUNT_NUMBER, "Ledger", 5000_00, "Current", null));
+        service.createAccount(new BankAccount(OTHER_ACCOUNT_NUMBER, "Ledger", 5000_00, "Current", null));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        ReflectionTestUtils.setField(service, "concurrencyMode", BalanceConcurrencyMode.ATOMIC);
+        transactionRepo.deleteAllInBatch();
+        accountRepo.deleteAllById(List.of(ACCOUNT_NUMBER, OTHER_ACCOUNT_NUMBER));
+    }
+
+    @Test
+    void postingsLeaveTheSnapshotAloneUntilCompacted() {
+        service.deposit(new AccountTransactionRequestDto(ACCOUNT_NUMBER, 700_00));
+        service.withdraw(ACCOUNT_NUMBER, 200_00);
+        service.transfer(new TransferRequestDto(ACCOUNT_NUMBER, OTHER_ACCOUNT_NUMBER, 1000_00));
+
+        assertEquals(5000_00, accountRepo.findById(ACCOUNT_NUMBER).orElseThrow().getBalance());
+        assertEquals(4500_00, service.getAccountDetails(ACCOUNT_NUMBER).balance());
+        assertEquals(6000_00, service.getAccountDetails(OTHER_ACCOUNT_NUMBER).balance());
+
+        assertEquals(4, compactor.compact());
+
+        assertEquals(4500_00, accountRepo.findById(ACCOUNT_NUMBER).orElseThrow().getBalance());
+        assertEquals(6000_00, accountRepo.findById(OTHER_ACCOUNT_NUMBER).orElseThrow().getBalance());
+        assertEquals(4500_00, service.getAccountDetails(ACCOUNT_NUMBER).balance());
+        assertTrue(transactionRepo.findAccountsWithPendingPostings(Limit.of(10)).isEmpty());
+        assertEquals(0, compactor.compact());
+    }
+
+    @Test
+    void debitsSeePendingPostings() {
+        service.withdraw(ACCOUNT_NUMBER, 3000_00);
+
+        // 2000 left, the minimum balance is 1000
+        assertThrows(InsufficientBalanceException.class, () -> service.withdraw(ACCOUNT_NUMBER, 1500_00));
+        assertEquals(2000_00, service.getAccountDetails(ACCOUNT_NUMBER).balance());
+    }
+
+}
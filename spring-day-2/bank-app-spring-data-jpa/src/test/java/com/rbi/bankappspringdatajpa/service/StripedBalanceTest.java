@@ -0,0 +1,188 @@
+package com.rbi.bankappspringdatajpa.service;
+
+import com.rbi.bankappspringdatajpa.dto.AccountTransactionRequestDto;
+import com.rbi.bankappspringdatajpa.dto.DailySummaryDto;
+import com.rbi.bankappspringdatajpa.dto.TransferRequestDto;
+import com.rbi.bankappspringdatajpa.exception.InsufficientBalanceException;
+import com.rbi.bankappspringdatajpa.model.BalanceStripe;
+import com.rbi.bankappspringdatajpa.model.BankAccount;
+import com.rbi.bankappspringdatajpa.model.DailySummaryStripe;
+import com.rbi.bankappspringdatajpa.repository.AccountTransactionRepo;
+import com.rbi.bankappspringdatajpa.repository.BalanceStripeRepo;
+import com.rbi.bankappspringdatajpa.repository.BankAccountRepo;
+import com.rbi.bankappspringdatajpa.repository.DailyAccountSummaryRepo;
+import com.rbi.bankappspringdatajpa.repository.DailySummaryStripeRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:striped-balance",
+        "account.striping.accounts=STRIPED00001",
+        "account.striping.stripes=4"})
+class StripedBalanceTest {
+
+    private static final String STRIPED_ACCOUNT = "STRIPED00001";
+    private static final String PLAIN_ACCOUNT = "PLAIN0000001";
+
+    @Autowired
+    BankAccountService service;
+
+    @Autowired
+    BalanceStripes balanceStripes;
+
+    @Autowired
+    DailySummaryUpdater summaryUpdater;
+
+    @Autowired
+    BankAccountRepo accountRepo;
+
+    @Autowired
+    BalanceStripeRepo stripeRepo;
+
+    @Autowired
+    AccountTransactionRepo transactionRepo;
+
+    @Autowired
+    DailyAccountSummaryRepo summaryRepo;
+
+    @Autowired
+    DailySummaryStripeRepo summaryStripeRepo;
+
+    @BeforeEach
+    void setUp() {
+        service.createAccount(new BankAccount(PLAIN_ACCOUNT, "Plain", 5000_00, "Current", null));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        stripeRepo.deleteAllInBatch();
+        summaryStripeRepo.deleteAllInBatch();
+        summaryRepo.deleteAllInBatch();
+        transactionRepo.deleteAllInBatch();
+        accountRepo.deleteAllById(List.of(STRIPED_ACCOUNT, PLAIN_ACCOUNT));
+    }
+
+    @Test
+    void depositsGoToStripesAndReadsAddThemUp() {
+        service.createAccount(new BankAccount(STRIPED_ACCOUNT, "Merchant", 5000_00, "Current", null));
+        for (int i = 0; i < 20; i++) {
+            service.deposit(new AccountTransactionRequestDto(STRIPED_ACCOUNT, 10_00));
+        }
+        service.transfer(new TransferRequestDto(PLAIN_ACCOUNT, STRIPED_ACCOUNT, 100_00));
+
+        assertEquals(5300_00, service.getAccountDetails(STRIPED_ACCOUNT).balance());
+        assertEquals(5000_00, accountRepo.findCurrentByAccountNumber(STRIPED_ACCOUNT).orElseThrow().getBalance());
+        assertEquals(4, stripes(STRIPED_ACCOUNT).size());
+        assertEquals(List.of(new DailySummaryDto(LocalDate.now(), 300_00, 21, 0, 0)),
+                service.getDailySummary(STRIPED_ACCOUNT, null, null).days());
+        // accounts that are not striped are not affected
+        assertEquals(4900_00, service.getAccountDetails(PLAIN_ACCOUNT).balance());
+        assertTrue(stripes(PLAIN_ACCOUNT).isEmpty());
+    }
+
+    @Test
+    void withdrawalsFoldTheStripesOnlyWhenTheAccountRowIsShort() {
+        service.createAccount(new BankAccount(STRIPED_ACCOUNT, "Merchant", 2000_00, "Current", null));
+        for (int i = 0; i < 5; i++) {
+            service.deposit(new AccountTransactionRequestDto(STRIPED_ACCOUNT, 1000_00));
+        }
+
+        assertEquals(6500_00, service.withdraw(STRIPED_ACCOUNT, 500_00).getBalance());
+        assertEquals(1500_00, accountRepo.findCurrentByAccountNumber(STRIPED_ACCOUNT).orElseThrow().getBalance());
+
+        // the row alone would go below the minimum balance of 1000
+        assertEquals(2500_00, service.withdraw(STRIPED_ACCOUNT, 4000_00).getBalance());
+        assertEquals(2500_00, accountRepo.findCurrentByAccountNumber(STRIPED_ACCOUNT).orElseThrow().getBalance());
+
+        assertThrows(InsufficientBalanceException.class, () -> service.withdraw(STRIPED_ACCOUNT, 2000_00));
+        assertEquals(2500_00, service.getAccountDetails(STRIPED_ACCOUNT).balance());
+        assertEquals(List.of(new DailySummaryDto(LocalDate.now(), 5000_00, 5, 4500_00, 2)),
+                service.getDailySummary(STRIPED_ACCOUNT, null, null).days());
+    }
+
+    @Test
+    void concurrentDepositsAndWithdrawalsKeepTheBalance() throws Exception {
+        service.createAccount(new BankAccount(STRIPED_ACCOUNT, "Merchant", 1000_00, "Current", null));
+        // at the minimum balance, so every withdrawal has to fold the stripes
+        service.deposit(new AccountTransactionRequestDto(STRIPED_ACCOUNT, 100_00));
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(9);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 50; i++) {
+                    service.deposit(new AccountTransactionRequestDto(STRIPED_ACCOUNT, 1_00));
+                }
+                return null;
+            }));
+        }
+        futures.add(executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < 20; i++) {
+                service.withdraw(STRIPED_ACCOUNT, 5_00);
+            }
+            return null;
+        }));
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(1400_00, service.getAccountDetails(STRIPED_ACCOUNT).balance());
+        assertEquals(List.of(new DailySummaryDto(LocalDate.now(), 500_00, 401, 100_00, 20)),
+                service.getDailySummary(STRIPED_ACCOUNT, null, null).days());
+    }
+
+    @Test
+    void removedAccountsLoseTheirStripes() {
+        service.createAccount(new BankAccount(STRIPED_ACCOUNT, "Merchant", 1000_00, "Current", null));
+        service.deposit(new AccountTransactionRequestDto(STRIPED_ACCOUNT, 100_00));
+        transactionRepo.deleteAllInBatch();
+
+        service.removeAccount(STRIPED_ACCOUNT);
+
+        assertTrue(stripes(STRIPED_ACCOUNT).isEmpty());
+    }
+
+    @Test
+    void stripesOfAccountsNoLongerStripedAreFoldedAtStartup() {
+        // left over from when the account was striped
+        stripeRepo.saveAll(List.of(new BalanceStripe(PLAIN_ACCOUNT, 0, 30_00), new BalanceStripe(PLAIN_ACCOUNT, 5, 20_00)));
+        summaryStripeRepo.saveAll(List.of(
+                new DailySummaryStripe(PLAIN_ACCOUNT, LocalDate.now(), 0, 30_00, 1),
+                new DailySummaryStripe(PLAIN_ACCOUNT, LocalDate.now(), 5, 20_00, 1)));
+
+        balanceStripes.reconcileStripes();
+        summaryUpdater.foldUnconfiguredStripes();
+
+        assertEquals(5050_00, accountRepo.findCurrentByAccountNumber(PLAIN_ACCOUNT).orElseThrow().getBalance());
+        assertTrue(stripeRepo.findAccountNumbers().isEmpty());
+        assertTrue(summaryStripeRepo.findAccountNumbers().isEmpty());
+        assertEquals(List.of(new DailySummaryDto(LocalDate.now(), 50_00, 2, 0, 0)),
+                service.getDailySummary(PLAIN_ACCOUNT, null, null).days());
+    }
+
+    private List<BalanceStripe> stripes(String accountNumber) {
+        return stripeRepo.findAll().stream().filter(stripe -> stripe.getAccountNumber().equals(accountNumber)).toList();
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.rbi.bankappspringdatajpa.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionIdGeneratorTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    void snowflakeIdsAreUniqueUnderContention() throws Exception {
+        SnowflakeTransactionIdGenerator generator = new SnowflakeTransactionIdGenerator(7);
+
+        Set<Long> ids = generateConcurrently(generator, 100_000);
+
+        assertEquals(THREADS * 100_000, ids.size());
+        assertTrue(ids.stream().allMatch(id -> id > 0));
+    }
+
+    @Test
+    void snowflakeIdsOfDifferentNodesNeverCollide() throws Exception {
+        Set<Long> ids = generateConcurrently(new SnowflakeTransactionIdGenerator(1), 50_000);
+        ids.addAll(generateConcurrently(new SnowflakeTransactionIdGenerator(2), 50_000));
+
+        assertEquals(2 * THREADS * 50_000, ids.size());
+    }
+
+    @Test
+    void snowflakeIdsIncreasePerThread() {
+        SnowflakeTransactionIdGenerator generator = new SnowflakeTransactionIdGenerator(0);
+        long previous = generator.nextId();
+        for (int i = 0; i < 100_000; i++) {
+            long next = generator.nextId();
+            assertTrue(next > previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void snowflakeRejectsNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeTransactionIdGenerator(1024));
+    }
+
+    @Test
+    void pooledSequenceIdsAreUniqueAcrossInstancesUnderContention() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:idgen;DB_CLOSE_DELAY=-1", "sa", "");
+
+        // two generators on one table behave like two application instances
+        Set<Long> ids = generateConcurrently(new PooledSequenceTransactionIdGenerator(dataSource, 50), 5_000);
+        ids.addAll(generateConcurrently(new PooledSequenceTransactionIdGenerator(dataSource, 50), 5_000));
+
+        assertEquals(2 * THREADS * 5_000, ids.size());
+    }
+
+    @Test
+    void pooledSequenceIsCreatedOnceByInstancesStartingTogether() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:idgen-start;DB_CLOSE_DELAY=-1", "sa", "");
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<PooledSequenceTransactionIdGenerator>> instances = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            instances.add(executor.submit(() -> {
+                start.await();
+                return new PooledSequenceTransactionIdGenerator(dataSource, 50);
+            }));
+        }
+        start.countDown();
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        for (Future<PooledSequenceTransactionIdGenerator> instance : instances) {
+            ids.add(instance.get(1, TimeUnit.MINUTES).nextId());
+        }
+        executor.shutdown();
+
+        assertEquals(THREADS, ids.size());
+        assertEquals(1, new JdbcTemplate(dataSource).queryForObject(
+                "select count(*) from " + PooledSequenceTransactionIdGenerator.TABLE_NAME, Integer.class));
+    }
+
+    @Test
+    void pooledSequenceTableWithoutIdKeepsItsValue() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:idgen-old;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table " + PooledSequenceTransactionIdGenerator.TABLE_NAME + " (next_val bigint not null)");
+        jdbcTemplate.update("insert into " + PooledSequenceTransactionIdGenerator.TABLE_NAME + " (next_val) values (1001)");
+
+        PooledSequenceTransactionIdGenerator generator = new PooledSequenceTransactionIdGenerator(dataSource, 50);
+
+        assertEquals(1001, generator.nextId());
+    }
+
+    private Set<Long> generateConcurrently(TransactionIdGenerator generator, int idsPerThread) throws Exception {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int n = 0; n < idsPerThread; n++) {
+                    ids.add(generator.nextId());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        return ids;
+    }
+
+}